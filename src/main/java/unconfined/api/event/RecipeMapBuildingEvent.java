@@ -1,10 +1,14 @@
 package unconfined.api.event;
 
 import cpw.mods.fml.common.eventhandler.Event;
+import gregtech.api.recipe.BackendCreator;
 import gregtech.api.recipe.RecipeMap;
+import gregtech.api.recipe.RecipeMapBackend;
 import gregtech.api.recipe.RecipeMapBuilder;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import org.jspecify.annotations.Nullable;
 
 /// Fired when the [RecipeMapBuilder] is about to instantiate the [RecipeMap].
 @RequiredArgsConstructor
@@ -15,4 +19,12 @@ public class RecipeMapBuildingEvent extends Event {
     @Getter
     private final RecipeMapBuilder<?> builder;
 
+    /// The creator to replace the [RecipeMapBackend] of the recipe map, or `null` to keep the original one.
+    ///
+    /// **NOTE:** The created backend must be an instance of the backend type the recipe map is declared with,
+    /// so only replace the backend of the recipe maps using the plain [RecipeMapBackend], unless you know what you're doing.
+    @Getter
+    @Setter
+    private @Nullable BackendCreator<?> backendCreator;
+
 }
@@ -0,0 +1,17 @@
+package unconfined.api.event;
+
+import cpw.mods.fml.common.eventhandler.Event;
+import gregtech.api.recipe.RecipeMapBackend;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/// Fired when the recipes of a [RecipeMapBackend] are re-initialized, e.g., reloaded or modified by scripts.
+///
+/// Anything derived from the recipes of the backend should be invalidated.
+@RequiredArgsConstructor
+public class RecipeMapReloadedEvent extends Event {
+
+    @Getter
+    private final RecipeMapBackend backend;
+
+}
@@ -25,4 +25,22 @@ public interface UnconfinedMultiFluidBasicMachine {
 
     /// @return the accessor to the array that stores the fluid outputs of the recipe, that will be added to the output slots when the progress is done.
     FinalArrayAccessor<FluidStack> getRecipeOutputAccessor();
+
+    /// The maximum count of crafts to run in one cycle, when the tanks and the power allow.
+    ///
+    /// Only the recipes without items are batched.
+    ///
+    /// @return the maximum batch size, `1` to disable batching.
+    default int getMaxBatchSize() {
+        return 1;
+    }
+
+    /// Check if the multi-fluid behavior is active for this machine.
+    ///
+    /// The in-place implementation is limited to the configured machine classes and recipe maps, and the others work as the vanilla ones.
+    ///
+    /// @return `false` if the machine should work as a vanilla one, ignoring the tanks above.
+    default boolean isMultiFluidActive() {
+        return true;
+    }
 }
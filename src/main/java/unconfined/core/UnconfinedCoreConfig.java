@@ -30,24 +30,44 @@ public final class UnconfinedCoreConfig implements ConfigClassHandler.ConfigBear
 
     private static final String CAT_MULTI_FLUID_BASIC = "multi-fluid-basic";
 
-    @ConfigClassHandler.ConfigValue
-    public boolean isMultiFluidEnabled() {
-        return config.getBoolean(
+    @Getter
+    private boolean multiFluidEnabled;
+    @Getter
+    private boolean multiFluidBasicImplementedByDefault;
+    @Getter
+    private String[] multiFluidBasicMachineClasses;
+    @Getter
+    private String[] multiFluidBasicRecipeMaps;
+
+    /// Resolve all the values from the configuration into the fields above, called by [ConfigClassHandler#loadAll()].
+    @Override
+    public void resolve() {
+        multiFluidEnabled = config.getBoolean(
             "enable",
             CAT_MULTI_FLUID_BASIC,
             true,
             "true to enable multi-fluid basic machine basic injection"
         );
-    }
 
-    @ConfigClassHandler.ConfigValue
-    public boolean isMultiFluidBasicImplementedByDefault() {
-        return config.getBoolean(
+        multiFluidBasicImplementedByDefault = config.getBoolean(
             "implemented-by-default",
             CAT_MULTI_FLUID_BASIC,
             isDevelopment(),
             "true to enable multi-fluid basic machine implementation by default"
         );
-    }
 
+        multiFluidBasicMachineClasses = config.getStringList(
+            "implemented-machine-classes",
+            CAT_MULTI_FLUID_BASIC,
+            new String[0],
+            "the fully qualified names of the machine classes (or their super classes) to implement multi-fluid by default, empty to not limit by classes"
+        );
+
+        multiFluidBasicRecipeMaps = config.getStringList(
+            "implemented-recipe-maps",
+            CAT_MULTI_FLUID_BASIC,
+            new String[0],
+            "the unlocalized names of the recipe maps (e.g., gt.recipe.mixer) whose machines implement multi-fluid by default, empty to not limit by recipe maps"
+        );
+    }
 }
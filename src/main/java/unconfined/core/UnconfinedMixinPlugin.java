@@ -10,6 +10,8 @@ import org.spongepowered.asm.mixin.extensibility.IMixinConfigPlugin;
 import org.spongepowered.asm.mixin.extensibility.IMixinInfo;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -24,10 +26,31 @@ public final class UnconfinedMixinPlugin implements IMixinConfigPlugin, ILateMix
     @Getter
     private static boolean multiFluidBasicImplementedByDefault;
 
+    private static Set<String> multiFluidBasicMachineClasses = new HashSet<>();
+    private static Set<String> multiFluidBasicRecipeMaps = new HashSet<>();
+
     @Override
     public void onLoad(String mixinPackage) {
         log.info("Loading core configurations");
         config.getHandler().loadAll();
+        multiFluidBasicMachineClasses = new HashSet<>(Arrays.asList(config.getMultiFluidBasicMachineClasses()));
+        multiFluidBasicRecipeMaps = new HashSet<>(Arrays.asList(config.getMultiFluidBasicRecipeMaps()));
+    }
+
+    /// Check if the in-place multi-fluid implementation is active for the machine, by the configured classes and recipe maps.
+    ///
+    /// The machine is allowed if either its class (or any super class) or its recipe map is listed, or nothing is listed at all.
+    ///
+    /// @param machineClass  the class of the machine.
+    /// @param recipeMapName the unlocalized name of the recipe map of the machine, or `null` if absent.
+    public static boolean isMultiFluidBasicImplementedFor(Class<?> machineClass, @Nullable String recipeMapName) {
+        if (!multiFluidBasicImplementedByDefault) return false;
+        if (multiFluidBasicMachineClasses.isEmpty() && multiFluidBasicRecipeMaps.isEmpty()) return true;
+        if (recipeMapName != null && multiFluidBasicRecipeMaps.contains(recipeMapName)) return true;
+        for (Class<?> c = machineClass; c != null; c = c.getSuperclass()) {
+            if (multiFluidBasicMachineClasses.contains(c.getName())) return true;
+        }
+        return false;
     }
 
     @Override
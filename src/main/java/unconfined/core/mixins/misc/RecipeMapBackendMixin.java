@@ -0,0 +1,19 @@
+package unconfined.core.mixins.misc;
+
+import gregtech.api.recipe.RecipeMapBackend;
+import net.minecraftforge.common.MinecraftForge;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import unconfined.api.event.RecipeMapReloadedEvent;
+
+@Mixin(value = RecipeMapBackend.class, remap = false)
+public class RecipeMapBackendMixin {
+
+    @Inject(method = "reInit", at = @At("TAIL"))
+    private void unconfined$postRecipeMapReloadedEvent(CallbackInfo ci) {
+        MinecraftForge.EVENT_BUS.post(new RecipeMapReloadedEvent((RecipeMapBackend) (Object) this));
+    }
+
+}
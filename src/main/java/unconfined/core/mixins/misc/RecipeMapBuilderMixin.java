@@ -1,11 +1,13 @@
 package unconfined.core.mixins.misc;
 
+import gregtech.api.recipe.BackendCreator;
 import gregtech.api.recipe.RecipeMap;
 import gregtech.api.recipe.RecipeMapBackend;
 import gregtech.api.recipe.RecipeMapBuilder;
 import net.minecraftforge.common.MinecraftForge;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Mutable;
 import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
@@ -19,9 +21,20 @@ public class RecipeMapBuilderMixin<B extends RecipeMapBackend> {
     @Final
     private String unlocalizedName;
 
+    @Shadow
+    @Final
+    @Mutable
+    private BackendCreator<B> backendCreator;
+
+    @SuppressWarnings("unchecked")
     @Inject(method = "build", at = @At(value = "NEW", target = "(Ljava/lang/String;Lgregtech/api/recipe/RecipeMapBackend;Lgregtech/api/recipe/RecipeMapFrontend;)Lgregtech/api/recipe/RecipeMap;"))
     private void unconfined$postRecipeMapBuildingEvent(CallbackInfoReturnable<RecipeMap<B>> cir) {
-        MinecraftForge.EVENT_BUS.post(new RecipeMapBuildingEvent(unlocalizedName, (RecipeMapBuilder<?>) (Object) this));
+        RecipeMapBuildingEvent event = new RecipeMapBuildingEvent(unlocalizedName, (RecipeMapBuilder<?>) (Object) this);
+        MinecraftForge.EVENT_BUS.post(event);
+        // the backend is created after the event, as the arguments of the constructor.
+        if (event.getBackendCreator() != null) {
+            backendCreator = (BackendCreator<B>) event.getBackendCreator();
+        }
     }
 
 }
@@ -3,18 +3,20 @@ package unconfined.core.mixins.multifluid;
 import gregtech.api.interfaces.ITexture;
 import gregtech.api.metatileentity.implementations.MTEBasicMachine;
 import gregtech.api.metatileentity.implementations.MTEBasicTank;
+import gregtech.api.recipe.RecipeMap;
 import gregtech.api.util.GTModHandler;
 import net.minecraftforge.common.util.ForgeDirection;
 import net.minecraftforge.fluids.Fluid;
 import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.fluids.FluidTankInfo;
+import org.jspecify.annotations.Nullable;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Unique;
-import org.spongepowered.asm.mixin.injection.At;
-import org.spongepowered.asm.mixin.injection.Inject;
-import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import unconfined.api.gregtech.UnconfinedMultiFluidBasicMachine;
+import unconfined.core.UnconfinedMixinPlugin;
+import unconfined.mod.gregtech.MultiFluidMachineState;
 import unconfined.util.FinalArrayAccessor;
+import unconfined.util.fluidtank.FluidTagInterner;
 import unconfined.util.fluidtank.IUnconfinedFluidTank;
 import unconfined.util.fluidtank.UnconfinedFluidSlotView;
 import unconfined.util.fluidtank.UnconfinedFluidTank;
@@ -25,7 +27,8 @@ import java.util.Objects;
 ///
 /// The required methods is provided, so the [MTEBasicMachineMixin] can intervene and make it work.
 ///
-/// TODO: add an option to disable this injection.
+/// Only the machines allowed by [UnconfinedMixinPlugin#isMultiFluidBasicImplementedFor(Class, String)] are active,
+/// and the tanks are created on the first access, so the other machines work as the vanilla ones without the tanks allocated.
 @SuppressWarnings("AddedMixinMembersNamePattern")
 @Mixin(value = MTEBasicMachine.class, remap = false)
 public abstract class MTEBasicMachineImplMixin extends MTEBasicTank implements UnconfinedMultiFluidBasicMachine {
@@ -35,19 +38,32 @@ public abstract class MTEBasicMachineImplMixin extends MTEBasicTank implements U
         // dummy constructor
     }
 
+    /// `0` if not resolved yet, as the recipe map is not available in the constructor, `1` if active, `-1` if not.
     @Unique
-    private IUnconfinedFluidTank unconfined$inputFluids;
+    private byte unconfined$active;
 
     @Unique
-    private IUnconfinedFluidTank unconfined$outputFluids;
+    private @Nullable IUnconfinedFluidTank unconfined$inputFluids;
 
     @Unique
-    private final FluidStack[] unconfined$recipeOutputFluids = new FluidStack[10];
+    private @Nullable IUnconfinedFluidTank unconfined$outputFluids;
+
     @Unique
-    private final FinalArrayAccessor<FluidStack> unconfined$recipeOutputFluidsAccessor = () -> unconfined$recipeOutputFluids;
+    private @Nullable FinalArrayAccessor<FluidStack> unconfined$recipeOutputFluidsAccessor;
 
-    @Inject(method = "<init>(Ljava/lang/String;II[Ljava/lang/String;[[[Lgregtech/api/interfaces/ITexture;II)V", at = @At("TAIL"))
-    private void unconfined$init(String aName, int aTier, int aAmperage, String[] aDescription, ITexture[][][] aTextures, int aInputSlotCount, int aOutputSlotCount, CallbackInfo ci) {
+    @Override
+    public boolean isMultiFluidActive() {
+        byte active = unconfined$active;
+        if (active == 0) {
+            RecipeMap<?> recipeMap = ((MTEBasicMachine) (Object) this).getRecipeMap();
+            active = UnconfinedMixinPlugin.isMultiFluidBasicImplementedFor(getClass(), recipeMap != null ? recipeMap.unlocalizedName : null) ? (byte) 1 : (byte) -1;
+            unconfined$active = active;
+        }
+        return active > 0;
+    }
+
+    @Unique
+    private void unconfined$createTanks() {
         unconfined$inputFluids = UnconfinedFluidTank.builder()
             .slotCount(3)
             .capacity(128 * 1000)
@@ -68,16 +84,26 @@ public abstract class MTEBasicMachineImplMixin extends MTEBasicTank implements U
 
     @Override
     public IUnconfinedFluidTank getInputFluids() {
+        if (unconfined$inputFluids == null) {
+            unconfined$createTanks();
+        }
         return unconfined$inputFluids;
     }
 
     @Override
     public IUnconfinedFluidTank getOutputFluids() {
+        if (unconfined$outputFluids == null) {
+            unconfined$createTanks();
+        }
         return unconfined$outputFluids;
     }
 
     @Override
     public FinalArrayAccessor<FluidStack> getRecipeOutputAccessor() {
+        if (unconfined$recipeOutputFluidsAccessor == null) {
+            FluidStack[] recipeOutputFluids = new FluidStack[10];
+            unconfined$recipeOutputFluidsAccessor = () -> recipeOutputFluids;
+        }
         return unconfined$recipeOutputFluidsAccessor;
     }
 
@@ -85,27 +111,32 @@ public abstract class MTEBasicMachineImplMixin extends MTEBasicTank implements U
 
     @Override
     public FluidStack getFluid() {
-        return getOutputFluids().getFirstNonEmpty();
+        if (!isMultiFluidActive()) return super.getFluid();
+        return FluidTagInterner.copyIfTagged(getOutputFluids().getFirstNonEmpty());
     }
 
     @Override
     public int getFluidAmount() {
+        if (!isMultiFluidActive()) return super.getFluidAmount();
         FluidStack fluid = getOutputFluids().getFirstNonEmpty();
         return fluid != null ? fluid.amount : 0;
     }
 
     @Override
     public int getCapacity() {
+        if (!isMultiFluidActive()) return super.getCapacity();
         return getOutputFluids().getCapacity();
     }
 
     @Override
     public int fill(FluidStack aFluid, boolean doFill) {
-        return getInputFluids().fill(aFluid, doFill);
+        if (!isMultiFluidActive()) return super.fill(aFluid, doFill);
+        return unconfined$wakeUpOnFill(getInputFluids().fill(aFluid, doFill), doFill);
     }
 
     @Override
     public FluidStack drain(int maxDrain, boolean doDrain) {
+        if (!isMultiFluidActive()) return super.drain(maxDrain, doDrain);
         return getOutputFluids().drainAny(maxDrain, doDrain);
     }
 
@@ -115,19 +146,30 @@ public abstract class MTEBasicMachineImplMixin extends MTEBasicTank implements U
 
     @Override
     public int fill(ForgeDirection side, FluidStack aFluid, boolean doFill) {
-        if (Objects.requireNonNull(getBaseMetaTileEntity()).isSteampowered() && GTModHandler.isSteam(aFluid)) {
+        if (!isMultiFluidActive()
+            || Objects.requireNonNull(getBaseMetaTileEntity()).isSteampowered() && GTModHandler.isSteam(aFluid)) {
             return super.fill(side, aFluid, doFill);
         }
-        return getInputFluids().fill(aFluid, doFill);
+        return unconfined$wakeUpOnFill(getInputFluids().fill(aFluid, doFill), doFill);
+    }
+
+    @Unique
+    private int unconfined$wakeUpOnFill(int filled, boolean doFill) {
+        if (doFill && filled > 0) {
+            ((MultiFluidMachineState.Holder) this).unconfined$getMultiFluidState().wakeUp();
+        }
+        return filled;
     }
 
     @Override
     public FluidStack drain(ForgeDirection side, FluidStack fluidStack, boolean doDrain) {
+        if (!isMultiFluidActive()) return super.drain(side, fluidStack, doDrain);
         return getOutputFluids().drain(fluidStack, fluidStack.amount, doDrain);
     }
 
     @Override
     public FluidStack drain(ForgeDirection side, int maxDrain, boolean doDrain) {
+        if (!isMultiFluidActive()) return super.drain(side, maxDrain, doDrain);
         return getOutputFluids().drainAny(maxDrain, doDrain);
     }
 
@@ -143,6 +185,7 @@ public abstract class MTEBasicMachineImplMixin extends MTEBasicTank implements U
 
     @Override
     public FluidTankInfo[] getTankInfo(ForgeDirection side) {
+        if (!isMultiFluidActive()) return super.getTankInfo(side);
         return getOutputFluids().getTankInfo();
     }
 
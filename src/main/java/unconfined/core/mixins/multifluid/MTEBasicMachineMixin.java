@@ -4,131 +4,397 @@ import com.gtnewhorizons.modularui.api.drawable.IDrawable;
 import com.gtnewhorizons.modularui.api.math.Pos2d;
 import com.gtnewhorizons.modularui.common.fluid.FluidStackTank;
 import com.gtnewhorizons.modularui.common.widget.FluidSlotWidget;
+import com.llamalad7.mixinextras.injector.ModifyExpressionValue;
+import com.llamalad7.mixinextras.injector.v2.WrapWithCondition;
 import com.llamalad7.mixinextras.injector.wrapoperation.Operation;
 import com.llamalad7.mixinextras.injector.wrapoperation.WrapOperation;
 import com.llamalad7.mixinextras.sugar.Local;
+import gregtech.api.interfaces.tileentity.IGregTechTileEntity;
 import gregtech.api.metatileentity.implementations.MTEBasicMachine;
+import gregtech.api.recipe.FindRecipeQuery;
+import gregtech.api.recipe.RecipeMap;
 import gregtech.api.util.GTRecipe;
+import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraftforge.fluids.FluidStack;
+import org.jspecify.annotations.Nullable;
 import org.objectweb.asm.Opcodes;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
-import org.spongepowered.asm.mixin.injection.ModifyArgs;
+import org.spongepowered.asm.mixin.injection.ModifyArg;
+import org.spongepowered.asm.mixin.injection.ModifyVariable;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
-import org.spongepowered.asm.mixin.injection.invoke.arg.Args;
 import unconfined.Unconfined;
 import unconfined.api.gregtech.UnconfinedMultiFluidBasicMachine;
+import unconfined.mod.UnconfinedConfig;
+import unconfined.mod.gregtech.MultiFluidMachineState;
+import unconfined.mod.gregtech.TickBudgetGovernor;
+import unconfined.mod.gregtech.recipe.AsyncRecipeSearch;
+import unconfined.mod.gregtech.recipe.OverclockCache;
+import unconfined.mod.gregtech.recipe.RecipeFluidRequirements;
+import unconfined.mod.gregtech.recipe.RecipeLookupCache;
 import unconfined.util.UnconfinedUtils;
 import unconfined.util.Utils;
+import unconfined.util.fluidtank.FluidRequirementVector;
+import unconfined.util.fluidtank.IUnconfinedFluidTank;
+import unconfined.util.fluidtank.UnconfinedFluidSlotWidget;
 
 /// The injection to make multi-fluid basic work.
 ///
 /// To make it work, the machine must implement [UnconfinedMultiFluidBasicMachine], and this injection should be good to do everything.
+/// The machines with [UnconfinedMultiFluidBasicMachine#isMultiFluidActive()] being `false` are left untouched.
+///
+/// The hooks that only adjust a value or skip a write use [ModifyExpressionValue] and [WrapWithCondition], which don't allocate per call.
+/// The ones that replace a call use [WrapOperation], which allocates an [Operation] per call, but composes with the other mods, unlike `@Redirect`.
 ///
 /// TODO: properly handle the fluid insertion and extraction from outside (via [net.minecraftforge.fluids.IFluidHandler] and [net.minecraftforge.fluids.IFluidTank]).
 @Mixin(value = MTEBasicMachine.class, remap = false)
-public class MTEBasicMachineMixin {
+public abstract class MTEBasicMachineMixin implements MultiFluidMachineState.Holder {
+
+    @Shadow
+    protected abstract ItemStack[] getAllInputs();
+
+    @Unique
+    private @Nullable MultiFluidMachineState unconfined$state;
+
+    /// `0` if not resolved yet, `1` if [UnconfinedMultiFluidBasicMachine#isMultiFluidActive()], `-1` if not.
+    @Unique
+    private byte unconfined$multiFluid;
+
+    /// Check if the multi-fluid implementation is active for this machine, resolved on the first call.
+    ///
+    /// Every hook checks this first, so an inactive machine bails out by a field read and a comparison.
+    /// It implies `this instanceof UnconfinedMultiFluidBasicMachine`, which the hooks only repeat to bind the machine when they use it.
+    @Unique
+    private boolean unconfined$isMultiFluid() {
+        byte multiFluid = unconfined$multiFluid;
+        if (multiFluid == 0) {
+            multiFluid = this instanceof UnconfinedMultiFluidBasicMachine mf && mf.isMultiFluidActive() ? (byte) 1 : (byte) -1;
+            unconfined$multiFluid = multiFluid;
+        }
+        return multiFluid > 0;
+    }
+
+    @Override
+    public MultiFluidMachineState unconfined$getMultiFluidState() {
+        if (unconfined$state == null) {
+            unconfined$state = new MultiFluidMachineState();
+        }
+        return unconfined$state;
+    }
+
+    @ModifyVariable(method = "onPostTick", at = @At("HEAD"), argsOnly = true)
+    private long unconfined$staggerTick(long aTick, @Local(argsOnly = true) IGregTechTileEntity aBaseMetaTileEntity) {
+        // spread the periodic work of the machines loaded at the same time.
+        if (unconfined$isMultiFluid() && aBaseMetaTileEntity.isServerSide()) {
+            return unconfined$getMultiFluidState().staggerTick(aBaseMetaTileEntity, aTick);
+        }
+        return aTick;
+    }
+
+    @Inject(method = "onPostTick", at = @At("HEAD"), cancellable = true)
+    private void unconfined$sleepWhenIdle(IGregTechTileEntity aBaseMetaTileEntity, long aTick, CallbackInfo ci) {
+        // skip the whole tick while sleeping.
+        if (unconfined$isMultiFluid() && aBaseMetaTileEntity.isServerSide() && this instanceof UnconfinedMultiFluidBasicMachine mf) {
+            MultiFluidMachineState state = unconfined$getMultiFluidState();
+            if (state.keepSleeping((MTEBasicMachine) (Object) this, mf, aTick)) {
+                ci.cancel();
+            }
+        }
+    }
 
-    @ModifyArgs(method = "checkRecipe(Z)I", at = @At(value = "INVOKE", target = "Lgregtech/api/recipe/FindRecipeQuery;fluids([Lnet/minecraftforge/fluids/FluidStack;)Lgregtech/api/recipe/FindRecipeQuery;"))
-    private void unconfined$recipeQueryMultiFluid(Args args) {
+    @Inject(method = "onPostTick", at = @At("TAIL"))
+    private void unconfined$fallAsleep(IGregTechTileEntity aBaseMetaTileEntity, long aTick, CallbackInfo ci) {
+        if (unconfined$isMultiFluid() && aBaseMetaTileEntity.isServerSide() && this instanceof UnconfinedMultiFluidBasicMachine mf) {
+            unconfined$getMultiFluidState().trySleep((MTEBasicMachine) (Object) this, mf, aTick);
+        }
+    }
+
+    @ModifyExpressionValue(method = "onPostTick", at = @At(value = "INVOKE", target = "Lgregtech/api/interfaces/tileentity/IGregTechTileEntity;hasInventoryBeenModified()Z"))
+    private boolean unconfined$recheckOnWakeUp(boolean modified) {
+        // a woken up machine checks the recipe immediately, instead of waiting for the next scheduled check.
+        if (!modified && unconfined$isMultiFluid()) {
+            MultiFluidMachineState state = unconfined$getMultiFluidState();
+            // a machine waiting for the off-thread recipe lookup or deferred by the budget checks in the next tick.
+            return state.isRecheckRequested() || state.hasPendingSearch() || state.isDeferred();
+        }
+        return modified;
+    }
+
+    @WrapOperation(method = "onPostTick", at = @At(value = "INVOKE", target = "Lgregtech/api/metatileentity/implementations/MTEBasicMachine;checkRecipe()I"))
+    private int unconfined$skipUnchangedRecipeCheck(MTEBasicMachine instance, Operation<Integer> original) {
+        // skip the recipe lookup if the output is blocked, the lookup is backing off, or nothing has changed since the last failure.
+        if (unconfined$isMultiFluid() && this instanceof UnconfinedMultiFluidBasicMachine mf) {
+            MultiFluidMachineState state = unconfined$getMultiFluidState();
+            TickBudgetGovernor governor = TickBudgetGovernor.INSTANCE;
+            if (state.isOutputDumpPending()) {
+                // the outputs of the last recipe go first.
+                if (governor.tryDefer(state)) {
+                    return MTEBasicMachine.DID_NOT_FIND_RECIPE;
+                }
+                unconfined$dumpRecipeOutput(mf, state);
+            }
+            if (state.isInRecipeBackoff(instance, mf)) {
+                return MTEBasicMachine.DID_NOT_FIND_RECIPE;
+            }
+            long signature = MultiFluidMachineState.computeInputSignature(instance, mf);
+            if (state.keepOutputBlocked(mf, signature)) {
+                // same as what GregTech does when it fails to output.
+                instance.mOutputBlocked++;
+                return MTEBasicMachine.FOUND_RECIPE_BUT_DID_NOT_MEET_REQUIREMENTS;
+            }
+            if (state.isInputUnchangedSinceFailure(signature)) {
+                return MTEBasicMachine.DID_NOT_FIND_RECIPE;
+            }
+            if (governor.tryDefer(state)) {
+                return MTEBasicMachine.DID_NOT_FIND_RECIPE;
+            }
+            long start = governor.begin();
+            try {
+                return unconfined$checkRecipe(instance, original, mf, state, signature);
+            } finally {
+                governor.record(start);
+            }
+        }
+        return original.call(instance);
+    }
+
+    /// Check the recipe of a multi-fluid machine, either by the off-thread lookup or the GregTech one.
+    @Unique
+    private int unconfined$checkRecipe(MTEBasicMachine instance, Operation<Integer> original, UnconfinedMultiFluidBasicMachine mf, MultiFluidMachineState state, long signature) {
+        if (AsyncRecipeSearch.isEnabled()) {
+            switch (state.pollRecipeSearch(signature)) {
+                case NONE -> {
+                    if (AsyncRecipeSearch.submit(instance, mf, getAllInputs(), state, signature)) {
+                        return MTEBasicMachine.DID_NOT_FIND_RECIPE;
+                    }
+                    // the workers are saturated, find the recipe on the server thread then.
+                }
+                case RUNNING -> {
+                    return MTEBasicMachine.DID_NOT_FIND_RECIPE;
+                }
+                case READY -> {
+                    if (state.peekSearchedRecipe() == null) {
+                        state.takeSearchedRecipe();
+                        state.onRecipeChecked(instance, mf, signature, MTEBasicMachine.DID_NOT_FIND_RECIPE);
+                        return MTEBasicMachine.DID_NOT_FIND_RECIPE;
+                    }
+                }
+                case FAILED -> {
+                    // find the recipe on the server thread then.
+                }
+            }
+        }
+        int result = original.call(instance);
+        // drop the searched recipe if the check returned before the lookup.
+        state.takeSearchedRecipe();
+        state.onRecipeChecked(instance, mf, signature, result);
+        if (result == MTEBasicMachine.FOUND_AND_SUCCESSFULLY_USED_RECIPE) {
+            state.runBatch(instance, mf);
+        }
+        return result;
+    }
+
+    @WrapOperation(method = "checkRecipe(Z)I", at = @At(value = "INVOKE", target = "Lgregtech/api/recipe/FindRecipeQuery;find()Lgregtech/api/util/GTRecipe;"))
+    private @Nullable GTRecipe unconfined$findRecipeCached(FindRecipeQuery instance, Operation<GTRecipe> original) {
+        // share the found recipes across the machines with the same kinds of inputs.
+        if (unconfined$isMultiFluid() && unconfined$getMultiFluidState().isSearchedRecipeReady()) {
+            // committing the recipe found off the server thread.
+            return unconfined$getMultiFluidState().takeSearchedRecipe();
+        }
+        RecipeLookupCache cache = RecipeLookupCache.INSTANCE;
+        if (unconfined$isMultiFluid() && this instanceof UnconfinedMultiFluidBasicMachine mf && cache.isEnabled()) {
+            MTEBasicMachine machine = (MTEBasicMachine) (Object) this;
+            RecipeMap<?> recipeMap = machine.getRecipeMap();
+            FluidStack[] fluids = unconfined$getMultiFluidState().snapshotInputs(mf);
+            ItemStack[] items = getAllInputs();
+            long key = cache.computeKey(recipeMap, machine.mTier, fluids, items, machine.getSpecialSlot());
+            GTRecipe recipe = cache.get(key, recipeMap, machine.mTier, fluids, items);
+            if (recipe != null) {
+                return recipe;
+            }
+            recipe = original.call(instance);
+            if (recipe != null) {
+                cache.put(key, recipeMap, machine.mTier, recipe);
+            }
+            return recipe;
+        }
+        return original.call(instance);
+    }
+
+    @ModifyArg(method = "checkRecipe(Z)I", at = @At(value = "INVOKE", target = "Lgregtech/api/recipe/FindRecipeQuery;fluids([Lnet/minecraftforge/fluids/FluidStack;)Lgregtech/api/recipe/FindRecipeQuery;"), index = 0)
+    private FluidStack[] unconfined$recipeQueryMultiFluid(FluidStack[] fluids) {
         // find the recipe by input tank.
-        if (this instanceof UnconfinedMultiFluidBasicMachine mf) {
-            args.set(0, mf.getInputFluids().toFluidStackArray());
+        if (unconfined$isMultiFluid() && this instanceof UnconfinedMultiFluidBasicMachine mf) {
+            return unconfined$getMultiFluidState().snapshotInputs(mf);
+        }
+        return fluids;
+    }
+
+    @WrapOperation(method = "checkRecipe(Z)I", at = @At(value = "INVOKE", target = "Lgregtech/api/metatileentity/implementations/MTEBasicMachine;calculateCustomOverclock(Lgregtech/api/util/GTRecipe;)V"))
+    private void unconfined$calculateOverclockCached(MTEBasicMachine instance, GTRecipe recipe, Operation<Void> original) {
+        // the overclock only depends on the recipe, the tier and the amperage.
+        if (unconfined$isMultiFluid() && OverclockCache.isCacheable(instance)) {
+            if (!OverclockCache.tryApply(instance, recipe)) {
+                original.call(instance, recipe);
+                OverclockCache.store(instance, recipe);
+            }
+            return;
         }
+        original.call(instance, recipe);
     }
 
-    @ModifyArgs(method = "checkRecipe(Z)I", at = @At(value = "INVOKE", target = "Lgregtech/api/util/GTRecipe;isRecipeInputEqual(Z[Lnet/minecraftforge/fluids/FluidStack;[Lnet/minecraft/item/ItemStack;)Z"))
-    private void unconfined$recipeInputEqualMultiFluid(Args args) {
+    @WrapOperation(method = "checkRecipe(Z)I", at = @At(value = "INVOKE", target = "Lgregtech/api/util/GTRecipe;isRecipeInputEqual(Z[Lnet/minecraftforge/fluids/FluidStack;[Lnet/minecraft/item/ItemStack;)Z"))
+    private boolean unconfined$recipeInputEqualMultiFluid(GTRecipe instance, boolean aDecreaseStacksizeBySuccess, FluidStack[] aFluidInputs, ItemStack[] aInputs, Operation<Boolean> original) {
         // re-check the recipe by input tank.
-        if (this instanceof UnconfinedMultiFluidBasicMachine mf) {
-            args.set(1, mf.getInputFluids().toFluidStackArray());
+        if (unconfined$isMultiFluid() && this instanceof UnconfinedMultiFluidBasicMachine mf) {
+            IUnconfinedFluidTank tank = mf.getInputFluids();
+            FluidRequirementVector requirement = RecipeFluidRequirements.get(instance);
+            // the fluid-only recipes are matched and consumed by the requirement vector.
+            if (RecipeFluidRequirements.hasNoItemInputs(instance)) {
+                return aDecreaseStacksizeBySuccess
+                    ? requirement.consume(tank, 1)
+                    : requirement.maxParallel(tank) >= 1;
+            }
+            // the others are filtered by the vector first, and leave the items to GregTech.
+            if (requirement.maxParallel(tank) < 1) {
+                return false;
+            }
+            FluidStack[] fluids = unconfined$getMultiFluidState().snapshotInputs(mf);
+            boolean result = original.call(instance, aDecreaseStacksizeBySuccess, fluids, aInputs);
+            if (result && aDecreaseStacksizeBySuccess) {
+                // GregTech has drained the stacks in place.
+                tank.markChanged();
+            }
+            return result;
         }
+        return original.call(instance, aDecreaseStacksizeBySuccess, aFluidInputs, aInputs);
     }
 
-    @WrapOperation(method = "canOutput(Lgregtech/api/util/GTRecipe;)Z", at = @At(value = "INVOKE", target = "Lgregtech/api/metatileentity/implementations/MTEBasicMachine;canOutput(Lnet/minecraftforge/fluids/FluidStack;)Z"))
-    private boolean unconfined$canOutputMultiFluid(MTEBasicMachine instance, FluidStack aOutput, Operation<Boolean> original, @Local(argsOnly = true) GTRecipe recipe) {
-        // check if the output tank can hold all the recipe output
-        if (this instanceof UnconfinedMultiFluidBasicMachine mf) {
-            return mf.getOutputFluids().canFillAll(recipe.mFluidOutputs);
+    @ModifyExpressionValue(method = "canOutput(Lgregtech/api/util/GTRecipe;)Z", at = @At(value = "INVOKE", target = "Lgregtech/api/metatileentity/implementations/MTEBasicMachine;canOutput(Lnet/minecraftforge/fluids/FluidStack;)Z"))
+    private boolean unconfined$canOutputMultiFluid(boolean canOutput, @Local(argsOnly = true) GTRecipe recipe) {
+        // check if the output tank can hold all the recipe output, instead of the single output GregTech has checked.
+        if (unconfined$isMultiFluid() && this instanceof UnconfinedMultiFluidBasicMachine mf) {
+            if (!mf.getOutputFluids().canFillAll(recipe.mFluidOutputs)) {
+                unconfined$getMultiFluidState().onOutputBlocked((MTEBasicMachine) (Object) this, mf);
+                return false;
+            }
+            return true;
         }
-        return original.call(instance, aOutput);
+        return canOutput;
     }
 
-    @WrapOperation(method = "checkRecipe(Z)I", at = @At(value = "FIELD", target = "Lgregtech/api/metatileentity/implementations/MTEBasicMachine;mOutputFluid:Lnet/minecraftforge/fluids/FluidStack;", opcode = Opcodes.PUTFIELD))
-    private void unconfined$recipeOutputMultiFluid(MTEBasicMachine instance, FluidStack value, Operation<Void> original, @Local(name = "tRecipe") GTRecipe recipe) {
-        // store the recipe output for later usage.
-        if (this instanceof UnconfinedMultiFluidBasicMachine mf) {
-            mf.getRecipeOutputAccessor().fill(UnconfinedUtils.copyArray(recipe.mFluidOutputs));
-            return;
+    @WrapWithCondition(method = "checkRecipe(Z)I", at = @At(value = "FIELD", target = "Lgregtech/api/metatileentity/implementations/MTEBasicMachine;mOutputFluid:Lnet/minecraftforge/fluids/FluidStack;", opcode = Opcodes.PUTFIELD))
+    private boolean unconfined$recipeOutputMultiFluid(MTEBasicMachine instance, FluidStack value, @Local(name = "tRecipe") GTRecipe recipe) {
+        // store the recipe output for later usage, instead of the single output.
+        if (unconfined$isMultiFluid() && this instanceof UnconfinedMultiFluidBasicMachine mf) {
+            FluidStack[] recipeOutput = mf.getRecipeOutputAccessor().get();
+            for (int i = 0; i < recipeOutput.length; i++) {
+                recipeOutput[i] = i < recipe.mFluidOutputs.length && recipe.mFluidOutputs[i] != null
+                    ? recipe.mFluidOutputs[i].copy()
+                    : null;
+            }
+            unconfined$getMultiFluidState().setActiveRecipe(recipe);
+            return false;
         }
-        original.call(instance, value);
+        return true;
     }
 
-    @WrapOperation(method = "onPostTick", at = @At(value = "FIELD", target = "Lgregtech/api/metatileentity/implementations/MTEBasicMachine;mOutputFluid:Lnet/minecraftforge/fluids/FluidStack;", opcode = Opcodes.GETFIELD))
-    private FluidStack unconfined$recipeDoneOutputMultiFluid(MTEBasicMachine instance, Operation<FluidStack> original) {
-        // when the recipe is finished,
-        // dump the recipe output to the output tank.
-        if (this instanceof UnconfinedMultiFluidBasicMachine mf) {
-            FluidStack[] recipeOut = mf.getRecipeOutputAccessor().get();
-            FluidStack[] leftover = mf.getOutputFluids().fillAll(recipeOut);
-            if (leftover.length > 0) {
-                Unconfined.log.warn(
-                    "Probably voided {} fluids when failed to dump them to the machine.",
-                    UnconfinedUtils.toString(leftover)
-                );
+    @ModifyExpressionValue(method = "onPostTick", at = @At(value = "FIELD", target = "Lgregtech/api/metatileentity/implementations/MTEBasicMachine;mOutputFluid:Lnet/minecraftforge/fluids/FluidStack;", opcode = Opcodes.GETFIELD, ordinal = 0))
+    private FluidStack unconfined$recipeDoneOutputMultiFluid(FluidStack outputFluid) {
+        // when the recipe is finished, i.e., the `mOutputFluid != null` check right after the progress is done,
+        // dump the recipe output to the output tank, or keep it until the next recipe check if deferred by the budget.
+        if (unconfined$isMultiFluid() && this instanceof UnconfinedMultiFluidBasicMachine mf) {
+            MultiFluidMachineState state = unconfined$getMultiFluidState();
+            if (TickBudgetGovernor.INSTANCE.tryDefer(state)) {
+                state.setOutputDumpPending(true);
+            } else {
+                unconfined$dumpRecipeOutput(mf, state);
             }
-            mf.getRecipeOutputAccessor().clear();
         }
-        return original.call(instance);
+        return outputFluid;
+    }
+
+    @Unique
+    private static void unconfined$dumpRecipeOutput(UnconfinedMultiFluidBasicMachine mf, MultiFluidMachineState state) {
+        TickBudgetGovernor governor = TickBudgetGovernor.INSTANCE;
+        long start = governor.begin();
+        FluidStack[] recipeOut = mf.getRecipeOutputAccessor().get();
+        FluidStack[] leftover = mf.getOutputFluids().fillAll(recipeOut);
+        if (leftover.length > 0) {
+            Unconfined.log.warn(
+                "Probably voided {} fluids when failed to dump them to the machine.",
+                UnconfinedUtils.toString(leftover)
+            );
+        }
+        mf.getRecipeOutputAccessor().clear();
+        state.setOutputDumpPending(false);
+        governor.record(start);
     }
 
     @Inject(method = "loadNBTData", at = @At("TAIL"))
     private void unconfined$loadData(NBTTagCompound aNBT, CallbackInfo ci) {
         // load persisted data
-        if (this instanceof UnconfinedMultiFluidBasicMachine mf) {
-            mf.getInputFluids().loadData(aNBT.getCompoundTag("unconfined$inputFluids"));
-            mf.getOutputFluids().loadData(aNBT.getCompoundTag("unconfined$outputFluids"));
-            UnconfinedUtils.Persist.loadToArray(
-                aNBT.getCompoundTag("unconfined$recipeOutput"),
-                mf.getRecipeOutputAccessor().get()
-            );
+        if (unconfined$isMultiFluid() && this instanceof UnconfinedMultiFluidBasicMachine mf) {
+            // the tanks are decoded on the first access, which may never happen if the chunk is unloaded soon.
+            mf.getInputFluids().loadDataLazily(aNBT.getCompoundTag("unconfined$inputFluids"));
+            mf.getOutputFluids().loadDataLazily(aNBT.getCompoundTag("unconfined$outputFluids"));
+            NBTTagCompound recipeOutput = aNBT.getCompoundTag("unconfined$recipeOutput");
+            UnconfinedUtils.Persist.loadToArray(recipeOutput, mf.getRecipeOutputAccessor().get());
+            // saved while the dumping was deferred.
+            if (((MTEBasicMachine) (Object) this).mMaxProgresstime <= 0 && !UnconfinedUtils.Persist.isEmpty(recipeOutput)) {
+                unconfined$getMultiFluidState().setOutputDumpPending(true);
+            }
         }
     }
 
     @Inject(method = "saveNBTData", at = @At("TAIL"))
     private void unconfined$saveData(NBTTagCompound aNBT, CallbackInfo ci) {
         // persist data
-        if (this instanceof UnconfinedMultiFluidBasicMachine mf) {
-            aNBT.setTag("unconfined$inputFluids", mf.getInputFluids().saveData());
-            aNBT.setTag("unconfined$outputFluids", mf.getOutputFluids().saveData());
-            aNBT.setTag(
+        if (unconfined$isMultiFluid() && this instanceof UnconfinedMultiFluidBasicMachine mf) {
+            boolean omitEmpty = UnconfinedConfig.INSTANCE.isEmptyFluidDataOmitted();
+            unconfined$saveSection(aNBT, "unconfined$inputFluids", mf.getInputFluids().saveData(), omitEmpty);
+            unconfined$saveSection(aNBT, "unconfined$outputFluids", mf.getOutputFluids().saveData(), omitEmpty);
+            unconfined$saveSection(
+                aNBT,
                 "unconfined$recipeOutput",
-                UnconfinedUtils.Persist.saveArray(mf.getRecipeOutputAccessor().get())
+                UnconfinedUtils.Persist.saveArray(mf.getRecipeOutputAccessor().get()),
+                omitEmpty
             );
         }
     }
 
-    @ModifyArgs(method = "getUIProperties", at = @At(value = "INVOKE", target = "Ljava/lang/Math;min(II)I", ordinal = 0))
-    private void unconfined$modifyInputFluidCount(Args args) {
-        if (this instanceof UnconfinedMultiFluidBasicMachine mf) {
-            args.set(1, mf.getInputFluids().getSlotCount());
+    /// Save the section, or skip it if empty and allowed, as an absent section is loaded as empty.
+    @Unique
+    private static void unconfined$saveSection(NBTTagCompound aNBT, String key, NBTTagCompound section, boolean omitEmpty) {
+        if (!omitEmpty || !UnconfinedUtils.Persist.isEmpty(section)) {
+            aNBT.setTag(key, section);
+        }
+    }
+
+    @ModifyArg(method = "getUIProperties", at = @At(value = "INVOKE", target = "Ljava/lang/Math;min(II)I", ordinal = 0), index = 1)
+    private int unconfined$modifyInputFluidCount(int count) {
+        if (unconfined$isMultiFluid() && this instanceof UnconfinedMultiFluidBasicMachine mf) {
+            return mf.getInputFluids().getSlotCount();
         }
+        return count;
     }
 
-    @ModifyArgs(method = "getUIProperties", at = @At(value = "INVOKE", target = "Ljava/lang/Math;min(II)I", ordinal = 1))
-    private void unconfined$modifyOutputFluidCount(Args args) {
-        if (this instanceof UnconfinedMultiFluidBasicMachine mf) {
-            args.set(1, mf.getOutputFluids().getSlotCount());
+    @ModifyArg(method = "getUIProperties", at = @At(value = "INVOKE", target = "Ljava/lang/Math;min(II)I", ordinal = 1), index = 1)
+    private int unconfined$modifyOutputFluidCount(int count) {
+        if (unconfined$isMultiFluid() && this instanceof UnconfinedMultiFluidBasicMachine mf) {
+            return mf.getOutputFluids().getSlotCount();
         }
+        return count;
     }
 
     @Unique
     private FluidSlotWidget unconfined$createFluidSlot(IDrawable[] backgrounds, Pos2d pos, FluidStackTank tank, boolean isOutput) {
         return Utils.make(
-            new FluidSlotWidget(tank), w -> {
+            new UnconfinedFluidSlotWidget(tank), w -> {
                 if (isOutput) {
                     w.setInteraction(true, false);
                 }
@@ -139,7 +405,7 @@ public class MTEBasicMachineMixin {
 
     @WrapOperation(method = "lambda$addIOSlots$5", at = @At(value = "INVOKE", target = "Lgregtech/api/metatileentity/implementations/MTEBasicMachine;createFluidInputSlot([Lcom/gtnewhorizons/modularui/api/drawable/IDrawable;Lcom/gtnewhorizons/modularui/api/math/Pos2d;)Lcom/gtnewhorizons/modularui/common/widget/FluidSlotWidget;"))
     private FluidSlotWidget unconfined$createInputFluidSlot(MTEBasicMachine instance, IDrawable[] backgrounds, Pos2d pos, Operation<FluidSlotWidget> original, @Local(argsOnly = true) int index) {
-        if (this instanceof UnconfinedMultiFluidBasicMachine mf) {
+        if (unconfined$isMultiFluid() && this instanceof UnconfinedMultiFluidBasicMachine mf) {
             return unconfined$createFluidSlot(
                 backgrounds,
                 pos,
@@ -152,7 +418,7 @@ public class MTEBasicMachineMixin {
 
     @WrapOperation(method = "lambda$addIOSlots$6", at = @At(value = "INVOKE", target = "Lgregtech/api/metatileentity/implementations/MTEBasicMachine;createFluidOutputSlot([Lcom/gtnewhorizons/modularui/api/drawable/IDrawable;Lcom/gtnewhorizons/modularui/api/math/Pos2d;)Lcom/gtnewhorizons/modularui/common/widget/FluidSlotWidget;"))
     private FluidSlotWidget unconfined$createOutputFluidSlot(MTEBasicMachine instance, IDrawable[] backgrounds, Pos2d pos, Operation<FluidSlotWidget> original, @Local(argsOnly = true) int index) {
-        if (this instanceof UnconfinedMultiFluidBasicMachine mf) {
+        if (unconfined$isMultiFluid() && this instanceof UnconfinedMultiFluidBasicMachine mf) {
             return unconfined$createFluidSlot(
                 backgrounds,
                 pos,
@@ -3,17 +3,22 @@ package unconfined.mod;
 import cpw.mods.fml.common.event.FMLInitializationEvent;
 import cpw.mods.fml.common.event.FMLPostInitializationEvent;
 import cpw.mods.fml.common.event.FMLPreInitializationEvent;
+import cpw.mods.fml.common.event.FMLServerStartedEvent;
 import cpw.mods.fml.common.event.FMLServerStartingEvent;
+import cpw.mods.fml.common.event.FMLServerStoppingEvent;
 import unconfined.api.UnconfinedAPI;
 import unconfined.mod.command.UnconfinedCommand;
 import unconfined.mod.gregtech.DebugMachineLoader;
 import unconfined.mod.gregtech.ExistingMachineReplacingLoader;
+import unconfined.mod.gregtech.recipe.AsyncRecipeSearch;
+import unconfined.mod.gregtech.recipe.FluidIndexedRecipeMapBackend;
 
 import java.util.function.Supplier;
 
 public class CommonProxy {
 
     public void preInit(FMLPreInitializationEvent event) {
+        // re-resolved, the values are resolved on the construction already.
         UnconfinedConfig.INSTANCE.getHandler().loadAll();
     }
 
@@ -33,6 +38,16 @@ public class CommonProxy {
         event.registerServerCommand(new UnconfinedCommand());
     }
 
+    public void serverStarted(FMLServerStartedEvent event) {
+        // the recipes are modified by other mods and scripts until the server is starting, which invalidates the indices.
+        FluidIndexedRecipeMapBackend.buildAllFluidIndices();
+        AsyncRecipeSearch.start();
+    }
+
+    public void serverStopping(FMLServerStoppingEvent event) {
+        AsyncRecipeSearch.stop();
+    }
+
     public <T> T runSided(Supplier<T> serverSide, Supplier<T> clientSide) {
         return serverSide.get();
     }
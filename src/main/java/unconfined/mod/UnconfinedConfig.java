@@ -20,18 +20,165 @@ public final class UnconfinedConfig implements ConfigClassHandler.ConfigBearer {
     public UnconfinedConfig() {
         this.config = new Configuration(new File("config/unconfined.cfg"));
         this.handler = new ConfigClassHandler(this);
+        // resolved eagerly, as some values are read before the pre-initialization, e.g., by the recipe map building events.
+        this.handler.loadAll();
     }
 
     private static final String CAT_MULTI_FLUID_BASIC = "multi-fluid-basic";
+    private static final String CAT_EXECUTOR = "executor";
 
-    @ConfigClassHandler.ConfigValue
-    public boolean isReplacingExistingMachines() {
-        return config.getBoolean(
+    @Getter
+    private boolean replacingExistingMachines;
+    @Getter
+    private boolean batchModeEnabled;
+    @Getter
+    private boolean fluidIndexedBackendEnabled;
+    @Getter
+    private boolean fluidIndexPersisted;
+    @Getter
+    private boolean idleSleepEnabled;
+    @Getter
+    private int recipeBackoffBaseInterval;
+    @Getter
+    private int recipeBackoffMaxInterval;
+    @Getter
+    private int recipeCheckStaggerWindow;
+    @Getter
+    private int recipeLookupCacheSize;
+    @Getter
+    private boolean asyncRecipeSearchEnabled;
+    @Getter
+    private int tickBudgetMicros;
+    @Getter
+    private boolean emptyFluidDataOmitted;
+    @Getter
+    private int executorThreads;
+    @Getter
+    private int executorQueueCapacity;
+    @Getter
+    private boolean executorVirtualThreadsPreferred;
+
+    /// Resolve all the values from the configuration into the fields above, called by [ConfigClassHandler#loadAll()],
+    /// on the construction and again on the pre-initialization.
+    @Override
+    public void resolve() {
+        replacingExistingMachines = config.getBoolean(
             "replace",
             CAT_MULTI_FLUID_BASIC,
             UnconfinedAPI.isStandaloneMode(),
             "true to enable multi-fluid support to existing machines (Chemical Reactors and Electrolyzers)"
         );
-    }
 
+        batchModeEnabled = config.getBoolean(
+            "batch-mode",
+            CAT_MULTI_FLUID_BASIC,
+            false,
+            "true to let the replaced Chemical Reactors and Electrolyzers run multiple fluid-only crafts in one cycle, capped by their tiers"
+        );
+
+        fluidIndexedBackendEnabled = config.getBoolean(
+            "fluid-indexed-backend",
+            CAT_MULTI_FLUID_BASIC,
+            UnconfinedAPI.isStandaloneMode(),
+            "true to find the fluid-only recipes of the Large Chemical Reactor (gt.recipe.largechemicalreactor) and the Industrial Electrolyzer (gtpp.recipe.multielectro) recipe maps by a fluid index"
+        );
+
+        fluidIndexPersisted = config.getBoolean(
+            "persist-fluid-index",
+            CAT_MULTI_FLUID_BASIC,
+            true,
+            "true to save the fluid indices to config/unconfined/recipe-index and load them on the next launch if the recipes are unchanged"
+        );
+
+        idleSleepEnabled = config.getBoolean(
+            "idle-sleep",
+            CAT_MULTI_FLUID_BASIC,
+            true,
+            "true to put idle multi-fluid machines to sleep until their inputs, inventory or power change"
+        );
+
+        recipeBackoffBaseInterval = config.getInt(
+            "recipe-backoff-base-interval",
+            CAT_MULTI_FLUID_BASIC,
+            20,
+            0,
+            Integer.MAX_VALUE,
+            "the interval in ticks to wait before checking the recipe again after a failed lookup, doubled on each further failure; 0 to disable the backoff"
+        );
+
+        recipeBackoffMaxInterval = config.getInt(
+            "recipe-backoff-max-interval",
+            CAT_MULTI_FLUID_BASIC,
+            600,
+            0,
+            Integer.MAX_VALUE,
+            "the maximum interval in ticks between recipe checks of a machine with repeated failed lookups"
+        );
+
+        recipeCheckStaggerWindow = config.getInt(
+            "recipe-check-stagger-window",
+            CAT_MULTI_FLUID_BASIC,
+            100,
+            0,
+            Integer.MAX_VALUE,
+            "the window in ticks to spread the periodic work of multi-fluid machines across, by their positions; 0 to disable"
+        );
+
+        recipeLookupCacheSize = config.getInt(
+            "recipe-lookup-cache-size",
+            CAT_MULTI_FLUID_BASIC,
+            4096,
+            0,
+            Integer.MAX_VALUE,
+            "the maximum count of recipe lookups shared across the multi-fluid machines, the least recently used ones are evicted first; 0 to disable"
+        );
+
+        asyncRecipeSearchEnabled = config.getBoolean(
+            "async-recipe-search",
+            CAT_MULTI_FLUID_BASIC,
+            false,
+            "true to find the recipes of multi-fluid machines on worker threads, and start them on the next tick if the inputs are unchanged"
+        );
+
+        tickBudgetMicros = config.getInt(
+            "tick-budget-micros",
+            CAT_MULTI_FLUID_BASIC,
+            0,
+            0,
+            1_000_000,
+            "the wall time in microseconds per tick for the recipe checks and output dumping of multi-fluid machines, the machines beyond defer their recipe checks to the next tick in turn; 0 to disable"
+        );
+
+        emptyFluidDataOmitted = config.getBoolean(
+            "omit-empty-fluid-data",
+            CAT_MULTI_FLUID_BASIC,
+            true,
+            "true to not save the empty multi-fluid tanks and recipe outputs of the machines, which are loaded as empty when absent"
+        );
+
+        executorThreads = config.getInt(
+            "threads",
+            CAT_EXECUTOR,
+            0,
+            0,
+            256,
+            "the count of worker threads of the shared executor; 0 for half of the processors"
+        );
+
+        executorQueueCapacity = config.getInt(
+            "queue-capacity",
+            CAT_EXECUTOR,
+            4096,
+            1,
+            Integer.MAX_VALUE,
+            "the maximum count of tasks waiting for a worker, the tasks beyond are rejected and done by the submitter itself"
+        );
+
+        executorVirtualThreadsPreferred = config.getBoolean(
+            "virtual-threads",
+            CAT_EXECUTOR,
+            true,
+            "true to make the worker threads virtual threads if the Java runtime supports them, the count is still bounded by threads"
+        );
+    }
 }
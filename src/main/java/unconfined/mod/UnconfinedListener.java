@@ -3,14 +3,36 @@ package unconfined.mod;
 import com.gtnewhorizon.gtnhlib.eventbus.EventBusSubscriber;
 import com.gtnewhorizon.gtnhlib.eventbus.Phase;
 import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.common.gameevent.TickEvent;
 import gregtech.api.gui.modularui.GTUITextures;
 import lombok.extern.log4j.Log4j2;
 import unconfined.api.event.RecipeMapBuildingEvent;
+import unconfined.api.event.RecipeMapReloadedEvent;
+import unconfined.mod.gregtech.TickBudgetGovernor;
+import unconfined.mod.gregtech.recipe.AsyncRecipeSearch;
+import unconfined.mod.gregtech.recipe.FluidIndexedRecipeMapBackend;
+import unconfined.mod.gregtech.recipe.OverclockCache;
+import unconfined.mod.gregtech.recipe.RecipeFluidRequirements;
+import unconfined.mod.gregtech.recipe.RecipeLookupCache;
+import unconfined.util.UnconfinedExecutor;
 
 @Log4j2
 @EventBusSubscriber(phase = Phase.CONSTRUCT) // register early enough to receive events from GT.
 public class UnconfinedListener {
 
+    @SubscribeEvent
+    public static void onRecipeMapBuildingAttachBackend(RecipeMapBuildingEvent event) {
+        if (!UnconfinedConfig.INSTANCE.isFluidIndexedBackendEnabled()) return;
+
+        // only the multiblock maps of Large Chemical Reactor and Industrial Electrolyzer, both are using the plain RecipeMapBackend, so it's safe to replace.
+        if (event.getUnlocalizedName().equals("gt.recipe.largechemicalreactor")
+            || event.getUnlocalizedName().equals("gtpp.recipe.multielectro")) {
+            log.info("Attaching fluid-indexed backend to {}", event.getUnlocalizedName());
+            String name = event.getUnlocalizedName();
+            event.setBackendCreator(propertiesBuilder -> new FluidIndexedRecipeMapBackend(propertiesBuilder, name));
+        }
+    }
+
     @SubscribeEvent
     public static void onRecipeMapBuilding(RecipeMapBuildingEvent event) {
         if (!UnconfinedConfig.INSTANCE.isReplacingExistingMachines()) return;
@@ -46,4 +68,20 @@ public class UnconfinedListener {
         }
     }
 
+    @SubscribeEvent
+    public static void onRecipeMapReloaded(RecipeMapReloadedEvent event) {
+        RecipeLookupCache.INSTANCE.invalidate();
+        RecipeFluidRequirements.invalidate();
+        OverclockCache.invalidate();
+        AsyncRecipeSearch.onRecipesReloaded();
+    }
+
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase == TickEvent.Phase.START) {
+            TickBudgetGovernor.INSTANCE.onTickStart();
+            UnconfinedExecutor.shared().drainCompletions();
+        }
+    }
+
 }
@@ -7,6 +7,7 @@ import net.minecraft.util.IChatComponent;
 import net.minecraftforge.fluids.FluidStack;
 import org.jspecify.annotations.Nullable;
 import unconfined.api.gregtech.UnconfinedMultiFluidBasicMachine;
+import unconfined.mod.gregtech.MultiFluidMachineState;
 import unconfined.util.Utils;
 import unconfined.util.chat.ChatBuilder;
 import unconfined.util.fluidtank.IUnconfinedFluidTank;
@@ -56,11 +57,15 @@ class BlockInspectUtils {
                             .append(getFluidInfoMessage(basicTank.mFluid)));
                     }
                 }
-                if (mte instanceof UnconfinedMultiFluidBasicMachine multiFluidBasicMachine) {
+                if (mte instanceof UnconfinedMultiFluidBasicMachine multiFluidBasicMachine && multiFluidBasicMachine.isMultiFluidActive()) {
                     list.add(ChatBuilder.text("[INPUT]"));
                     getUnconfinedFluidTankInfo(list, multiFluidBasicMachine.getInputFluids());
                     list.add(ChatBuilder.text("[OUTPUT]"));
                     getUnconfinedFluidTankInfo(list, multiFluidBasicMachine.getOutputFluids());
+                    if (mte instanceof MultiFluidMachineState.Holder holder) {
+                        list.add(ChatBuilder.text("[STATE] ")
+                            .append(getMachineStateMessage(holder.unconfined$getMultiFluidState())));
+                    }
                 }
                 // finalize
                 if (list.isEmpty()) {
@@ -81,6 +86,15 @@ class BlockInspectUtils {
         }
     }
 
+    private static IChatComponent getMachineStateMessage(MultiFluidMachineState state) {
+        return switch (state.getStatus()) {
+            case AWAKE -> ChatBuilder.text("AWAKE").color(EnumChatFormatting.GREEN);
+            case SLEEPING_NO_RECIPE -> ChatBuilder.text("SLEEPING (no recipe for the inputs)").color(EnumChatFormatting.GRAY);
+            case SLEEPING_NO_POWER -> ChatBuilder.text("SLEEPING (not enough energy)").color(EnumChatFormatting.GRAY);
+            case OUTPUT_BLOCKED -> ChatBuilder.text("OUTPUT BLOCKED (fluid outputs don't fit)").color(EnumChatFormatting.RED);
+        };
+    }
+
     private static void getUnconfinedFluidTankInfo(ArrayList<IChatComponent> list, IUnconfinedFluidTank outputFluids) {
         for (int i = 0; i < outputFluids.getSlotCount(); i++) {
             FluidStack slot = outputFluids.get(i);
@@ -18,6 +18,8 @@ import net.minecraft.util.EnumChatFormatting;
 import net.minecraft.util.IChatComponent;
 import net.minecraft.util.MovingObjectPosition;
 import net.minecraft.world.World;
+import unconfined.mod.gregtech.recipe.RecipeLookupCache;
+import unconfined.util.UnconfinedExecutor;
 import unconfined.util.UnconfinedUtils;
 import unconfined.util.chat.ChatBuilder;
 import unconfined.util.command.TreeCommand;
@@ -31,6 +33,8 @@ public class UnconfinedCommand extends TreeCommand {
         addSubCommand(new Foo());
         addSubCommand("teleport", new CommandTeleport());
         addSubCommand(new InspectBlockInfo());
+        addSubCommand(new RecipeCacheStats());
+        addSubCommand(new ExecutorStats());
     }
 
     @Override
@@ -167,4 +171,82 @@ public class UnconfinedCommand extends TreeCommand {
         }
     }
 
+    private static class RecipeCacheStats extends CommandBase {
+        @Override
+        public String getCommandName() {
+            return "recipecache";
+        }
+
+        @Override
+        public String getCommandUsage(ICommandSender sender) {
+            return "command.unconfined.recipecache.usage";
+        }
+
+        @Override
+        public void processCommand(ICommandSender sender, String[] args) {
+            RecipeLookupCache cache = RecipeLookupCache.INSTANCE;
+            if (args.length > 0 && args[0].equals("reset")) {
+                cache.invalidate();
+                cache.resetCounters();
+                sender.addChatMessage(ChatBuilder.text("Recipe lookup cache has been reset.").color(EnumChatFormatting.GREEN));
+                return;
+            }
+            if (!cache.isEnabled()) {
+                sender.addChatMessage(ChatBuilder.text("Recipe lookup cache is disabled.").color(EnumChatFormatting.GRAY));
+                return;
+            }
+            long hits = cache.getHits(), misses = cache.getMisses();
+            long total = hits + misses;
+            sender.addChatMessage(
+                ChatBuilder.text("Recipe lookup cache: ")
+                    .append(ChatBuilder.text(String.valueOf(cache.size())).color(EnumChatFormatting.YELLOW))
+                    .appendText(" entries, ")
+                    .append(ChatBuilder.text(String.valueOf(hits)).color(EnumChatFormatting.GREEN))
+                    .appendText(" hits, ")
+                    .append(ChatBuilder.text(String.valueOf(misses)).color(EnumChatFormatting.RED))
+                    .appendText(" misses")
+                    .append(
+                        ChatBuilder.text(total == 0 ? "" : String.format(" (%.1f%%)", hits * 100.0 / total))
+                            .color(EnumChatFormatting.GRAY)
+                    )
+            );
+        }
+    }
+
+    private static class ExecutorStats extends CommandBase {
+        @Override
+        public String getCommandName() {
+            return "executor";
+        }
+
+        @Override
+        public String getCommandUsage(ICommandSender sender) {
+            return "command.unconfined.executor.usage";
+        }
+
+        @Override
+        public void processCommand(ICommandSender sender, String[] args) {
+            UnconfinedExecutor.Metrics metrics = UnconfinedExecutor.shared().getMetrics();
+            sender.addChatMessage(
+                ChatBuilder.text("Executor: ")
+                    .append(ChatBuilder.text(String.valueOf(metrics.getRunning())).color(EnumChatFormatting.YELLOW))
+                    .appendText(" running, ")
+                    .append(ChatBuilder.text(String.valueOf(metrics.getQueueDepth())).color(EnumChatFormatting.YELLOW))
+                    .appendText(" queued, ")
+                    .append(ChatBuilder.text(String.valueOf(metrics.getCompletionQueueDepth())).color(EnumChatFormatting.YELLOW))
+                    .appendText(" pending completions")
+            );
+            sender.addChatMessage(
+                ChatBuilder.text(String.format(
+                    "%d tasks done, %d rejected, wait avg %.3f ms, run avg %.3f ms, run max %.3f ms",
+                    metrics.getCompletedTasks(),
+                    metrics.getRejectedTasks(),
+                    metrics.getAverageWaitNanos() / 1e6,
+                    metrics.getAverageRunNanos() / 1e6,
+                    metrics.getMaxRunNanos() / 1e6
+                )).color(EnumChatFormatting.GRAY)
+            );
+        }
+    }
+
 }
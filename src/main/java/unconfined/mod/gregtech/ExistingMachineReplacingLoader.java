@@ -10,6 +10,7 @@ import gregtech.api.recipe.RecipeMaps;
 import gregtech.loaders.preload.LoaderMetaTileEntities;
 import gtPlusPlus.api.recipe.GTPPRecipeMaps;
 import lombok.extern.log4j.Log4j2;
+import unconfined.mod.UnconfinedConfig;
 import unconfined.util.UnconfinedUtils;
 import unconfined.util.tier.Tier;
 
@@ -65,6 +66,11 @@ public class ExistingMachineReplacingLoader {
         replace(map, fromId.ID, toId.ID, fromTier, generator);
     }
 
+    /// @return the maximum batch size of the tier from the given cap, or `1` if the batch mode is disabled.
+    private static int batch(Tier tier, ToIntFunction<Tier> cap) {
+        return UnconfinedConfig.INSTANCE.isBatchModeEnabled() ? cap.applyAsInt(tier) : 1;
+    }
+
     private static String pad(Tier tier) {
         String s = String.valueOf(tier.getValue());
         if (s.length() < 2) {
@@ -80,6 +86,8 @@ public class ExistingMachineReplacingLoader {
             if (tier.compareTo(Tier.HV) < 0) return 2;
             return 3;
         };
+        // 1 craft per cycle at LV, and 1 more per tier.
+        ToIntFunction<Tier> batchCap = Tier::getValue;
         MachineGenerator cr = (id, tier) -> new MultiFluidBasicMachineWithRecipe(
             id,
             "basicmachine.chemicalreactor.tier." + pad(tier),
@@ -95,7 +103,7 @@ public class ExistingMachineReplacingLoader {
             SoundResource.GTCEU_LOOP_CHEMICAL,
             MTEBasicMachineWithRecipe.SpecialEffects.NONE,
             "CHEMICAL_REACTOR"
-        );
+        ).setMaxBatchSize(batch(tier, batchCap));
         // LV-IV
         replace(
             CHEMICAL_REACTOR,
@@ -126,6 +134,8 @@ public class ExistingMachineReplacingLoader {
             // Luv+: 3 input 3 output
             return 3;
         };
+        // electrolysis is power-hungry, so the power limit usually kicks in earlier; 1 more craft per 2 tiers.
+        ToIntFunction<Tier> batchCap = tier -> (tier.getValue() + 1) / 2;
         MachineGenerator el = (id, tier) -> new MultiFluidBasicMachineWithRecipe(
             id,
             "basicmachine.electrolyzer.tier." + pad(tier),
@@ -141,7 +151,7 @@ public class ExistingMachineReplacingLoader {
             SoundResource.GTCEU_LOOP_ELECTROLYZER,
             MTEBasicMachineWithRecipe.SpecialEffects.NONE,
             "ELECTROLYZER"
-        );
+        ).setMaxBatchSize(batch(tier, batchCap));
         // LV-IV
         replace(
             ELECTROLYZER,
@@ -37,6 +37,10 @@ public class MultiFluidBasicMachineWithRecipe extends MTEBasicMachineWithRecipe
     @Getter
     protected final FluidStack[] recipeOutputFluids;
 
+    /// The maximum count of crafts to run in one cycle, see [UnconfinedMultiFluidBasicMachine#getMaxBatchSize()].
+    @Getter
+    protected int maxBatchSize = 1;
+
     // @formatter:off
     @Deprecated
     public MultiFluidBasicMachineWithRecipe(int aID, String aName, String aNameRegional, int aTier, String aDescription, RecipeMap<?> aRecipes, int aInputSlots, int aOutputSlots, int aTankCapacity, SoundResource aSound, SpecialEffects aSpecialEffect, String aOverlays, Object[] aRecipe) {
@@ -191,7 +195,7 @@ public class MultiFluidBasicMachineWithRecipe extends MTEBasicMachineWithRecipe
     @Override
     public IMetaTileEntity newMetaEntity(IGregTechTileEntity aTileEntity) {
         MTEBasicMachineWithRecipeAccessor self = (MTEBasicMachineWithRecipeAccessor) this;
-        return new MultiFluidBasicMachineWithRecipe(
+        MultiFluidBasicMachineWithRecipe machine = new MultiFluidBasicMachineWithRecipe(
             this.mName,
             this.mTier,
             this.mDescriptionArray,
@@ -207,10 +211,23 @@ public class MultiFluidBasicMachineWithRecipe extends MTEBasicMachineWithRecipe
             this.mTextures,
             self.unconfined$mSoundResource(),
             self.unconfined$mSpecialEffect()
-        ).setProgressBarTexture(self.unconfined$progressBarTexture())
+        ).setMaxBatchSize(this.maxBatchSize);
+        return machine.setProgressBarTexture(self.unconfined$progressBarTexture())
             .setRecipeCatalystPriority(self.unconfined$recipeCatalystPriority());
     }
 
+    /// Enable the batch mode by setting the maximum batch size greater than `1`.
+    public MultiFluidBasicMachineWithRecipe setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        return this;
+    }
+
+    /// Always active, regardless of the configured classes and recipe maps of the in-place implementation.
+    @Override
+    public boolean isMultiFluidActive() {
+        return true;
+    }
+
     @Override
     public FinalArrayAccessor<FluidStack> getRecipeOutputAccessor() {
         return () -> recipeOutputFluids;
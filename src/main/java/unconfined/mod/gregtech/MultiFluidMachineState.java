@@ -0,0 +1,463 @@
+package unconfined.mod.gregtech;
+
+import gregtech.api.enums.GTValues;
+import gregtech.api.interfaces.tileentity.IGregTechTileEntity;
+import gregtech.api.metatileentity.implementations.MTEBasicMachine;
+import gregtech.api.util.GTRecipe;
+import lombok.Getter;
+import lombok.Setter;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.FluidStack;
+import org.jetbrains.annotations.ApiStatus;
+import org.jspecify.annotations.Nullable;
+import unconfined.Unconfined;
+import unconfined.api.gregtech.UnconfinedMultiFluidBasicMachine;
+import unconfined.mod.UnconfinedConfig;
+import unconfined.mod.gregtech.recipe.AsyncRecipeSearch;
+import unconfined.mod.gregtech.recipe.RecipeFluidRequirements;
+import unconfined.util.fluidtank.FluidRequirementVector;
+import unconfined.util.fluidtank.IUnconfinedFluidTank;
+
+
+/// The runtime bookkeeping of a multi-fluid basic machine, used by [unconfined.core.mixins.multifluid.MTEBasicMachineMixin] to cut the idle costs.
+///
+/// The state is not persisted, a freshly loaded machine always starts from a full recipe check.
+@ApiStatus.Internal
+public class MultiFluidMachineState {
+
+    /// The interval in ticks to verify the input signature of a sleeping machine, same as the idle recipe check interval of GregTech.
+    private static final int SLEEP_SIGNATURE_CHECK_INTERVAL = 100;
+    /// The hash of a slot not decoded yet, which makes the signature change once when the slot is decoded, which only costs an extra recipe check.
+    private static final long PENDING_SLOT = 0x5EED_F1D0_0000_0001L;
+
+    private final boolean sleepEnabled = UnconfinedConfig.INSTANCE.isIdleSleepEnabled();
+    private final int backoffBaseInterval = UnconfinedConfig.INSTANCE.getRecipeBackoffBaseInterval();
+    private final int backoffMaxInterval = UnconfinedConfig.INSTANCE.getRecipeBackoffMaxInterval();
+    private final int staggerWindow = UnconfinedConfig.INSTANCE.getRecipeCheckStaggerWindow();
+
+    /// The tick offset of the machine, derived from its position, or `-1` if not computed yet.
+    private int tickPhase = -1;
+
+    /// The input signature of the last recipe check that found nothing.
+    private long failedSignature;
+    private boolean failedSignatureValid;
+
+    /// The count of continuous failed recipe lookups, used to calculate the backoff interval.
+    private int failureCount;
+    private long nextBackoffCheck;
+    private long backoffInputVersion;
+
+    /// `true` if the machine is sleeping, and the `onPostTick` is skipped.
+    @Getter
+    private boolean sleeping;
+    private long sleepSignature;
+    private long sleepInputVersion;
+    private boolean sleepWithEnergy;
+    private long nextSleepSignatureCheck;
+
+    /// `true` if the last recipe found can't be done because the fluid outputs don't fit into the output tank.
+    @Getter
+    private boolean outputBlocked;
+    private long outputBlockedSignature;
+    private long outputBlockedInputSignature;
+
+    /// The recipe started by the last successful recipe check.
+    @Getter
+    @Setter
+    private @Nullable GTRecipe activeRecipe;
+    /// The count of crafts running in the current cycle, see [#runBatch(MTEBasicMachine, UnconfinedMultiFluidBasicMachine)].
+    @Getter
+    private int batchSize = 1;
+
+    /// `true` if a recipe lookup is submitted to a worker thread, see [AsyncRecipeSearch].
+    private boolean searchPending;
+    private long pendingSearchSignature;
+    /// `true` if the lookup has been completed, by the callback on the server thread.
+    private boolean searchCompleted;
+    private boolean searchFailed;
+    private @Nullable GTRecipe searchResult;
+    /// The recipe found by the worker thread for the current inputs, to be used by the next recipe check.
+    private @Nullable GTRecipe searchedRecipe;
+    @Getter
+    private boolean searchedRecipeReady;
+
+    /// `true` if the recipe check or the output dumping is deferred to a later tick by [TickBudgetGovernor].
+    @Getter
+    @Setter
+    private boolean deferred;
+    /// The place of the machine in the queue of [TickBudgetGovernor], valid while deferred.
+    @Getter
+    @Setter
+    private long deferredTicket;
+    /// The tick when [TickBudgetGovernor] decided the machine last time, to decide it once per tick.
+    @Getter
+    @Setter
+    private long decidedTick = -1;
+    /// `true` if the outputs of the finished recipe are kept in the recipe output, to be dumped to the output tank later.
+    @Getter
+    @Setter
+    private boolean outputDumpPending;
+
+    /// The reused array of the input fluids, see [#snapshotInputs(UnconfinedMultiFluidBasicMachine)].
+    private @Nullable FluidStack @Nullable [] inputSnapshot;
+
+    private boolean wakeRequested;
+    /// `true` if the machine should check the recipe in this tick, regardless of the GregTech schedule.
+    @Getter
+    private boolean recheckRequested;
+
+    /// Fill the input fluids of the machine into an array owned by this state, to avoid an allocation on every recipe check.
+    ///
+    /// The array is overwritten by the next call, so it must not be kept, or passed to another thread.
+    public @Nullable FluidStack[] snapshotInputs(UnconfinedMultiFluidBasicMachine mf) {
+        return inputSnapshot = mf.getInputFluids().toFluidStackArray(inputSnapshot);
+    }
+
+    /// Check if the inputs are the same as the last time the recipe lookup failed.
+    ///
+    /// @param signature the current input signature, see [#computeInputSignature(MTEBasicMachine, UnconfinedMultiFluidBasicMachine)].
+    /// @return `true` if the recipe lookup can be skipped, as it will fail again.
+    public boolean isInputUnchangedSinceFailure(long signature) {
+        return failedSignatureValid && failedSignature == signature;
+    }
+
+    /// Record the result of a recipe check.
+    ///
+    /// @param signature the input signature before the recipe check.
+    /// @param result    the result of [MTEBasicMachine#checkRecipe()].
+    public void onRecipeChecked(MTEBasicMachine machine, UnconfinedMultiFluidBasicMachine mf, long signature, int result) {
+        failedSignatureValid = result == MTEBasicMachine.DID_NOT_FIND_RECIPE;
+        failedSignature = signature;
+        if (failedSignatureValid && backoffBaseInterval > 0) {
+            // base, base * 2, base * 4, ... until the max.
+            long interval = (long) backoffBaseInterval << Math.min(failureCount, 30);
+            failureCount++;
+            nextBackoffCheck = machine.getBaseMetaTileEntity().getTimer() + Math.min(interval, backoffMaxInterval);
+            backoffInputVersion = mf.getInputFluids().getVersion();
+        } else {
+            failureCount = 0;
+        }
+    }
+
+    /// Check if the machine should wait longer before the next recipe lookup, after repeated failures.
+    ///
+    /// This is a fallback for the inputs that can't be fingerprinted cheaply, like the slots modified by other mods every tick.
+    /// Any change to the input tank through the tank API, or to the inventory, resets the backoff.
+    ///
+    /// @return `true` if the recipe lookup should be skipped.
+    public boolean isInRecipeBackoff(MTEBasicMachine machine, UnconfinedMultiFluidBasicMachine mf) {
+        if (failureCount == 0) return false;
+        IGregTechTileEntity base = machine.getBaseMetaTileEntity();
+        if (mf.getInputFluids().getVersion() != backoffInputVersion || base.hasInventoryBeenModified()) {
+            failureCount = 0;
+            return false;
+        }
+        return base.getTimer() < nextBackoffCheck;
+    }
+
+    /// Shift the tick counter passed to `onPostTick` by a phase derived from the position of the machine.
+    ///
+    /// GregTech schedules the periodic work, like the idle recipe checks, by `aTick % interval == 0`, where the tick counter starts when the chunk is loaded.
+    /// So that all the machines loaded together do the work in the same tick. Shifting the counter spreads them across the window,
+    /// while each machine still does the work at the same rate.
+    public long staggerTick(IGregTechTileEntity base, long tick) {
+        if (staggerWindow <= 1) return tick;
+        if (tickPhase < 0) {
+            int h = base.getXCoord() * 73856093 ^ base.getYCoord() * 19349663 ^ base.getZCoord() * 83492791;
+            tickPhase = Math.floorMod(h, staggerWindow);
+        }
+        return tick + tickPhase;
+    }
+
+    /// Mark the machine as output-blocked, until the output tank or the inputs are changed.
+    public void onOutputBlocked(MTEBasicMachine machine, UnconfinedMultiFluidBasicMachine mf) {
+        outputBlocked = true;
+        outputBlockedSignature = computeOutputSignature(mf);
+        outputBlockedInputSignature = computeInputSignature(machine, mf);
+    }
+
+    /// Check if the machine is still output-blocked.
+    ///
+    /// The state is released once the output tank is changed, like being drained or set from outside,
+    /// or the inputs are changed, as they may match another recipe whose outputs fit.
+    ///
+    /// @param signature the current input signature, see [#computeInputSignature(MTEBasicMachine, UnconfinedMultiFluidBasicMachine)].
+    /// @return `true` if both are unchanged since it's blocked, and the recipe check can be skipped.
+    public boolean keepOutputBlocked(UnconfinedMultiFluidBasicMachine mf, long signature) {
+        if (!outputBlocked) return false;
+        if (signature != outputBlockedInputSignature || computeOutputSignature(mf) != outputBlockedSignature) {
+            outputBlocked = false;
+        }
+        return outputBlocked;
+    }
+
+    /// Extend the recipe just started into a batch of up to [UnconfinedMultiFluidBasicMachine#getMaxBatchSize()] crafts in the same cycle.
+    ///
+    /// The extra crafts are bounded by the input tank, the output tank, and the rated power of the machine, i.e., the voltage of its tier times its amperage.
+    /// Only the recipes without item inputs and outputs are batched, as the items are handled by GregTech slot by slot.
+    ///
+    /// Should be called right after the recipe is started, when the inputs of the first craft are consumed.
+    public void runBatch(MTEBasicMachine machine, UnconfinedMultiFluidBasicMachine mf) {
+        batchSize = 1;
+        GTRecipe recipe = activeRecipe;
+        int maxBatchSize = mf.getMaxBatchSize();
+        if (recipe == null || maxBatchSize <= 1 || machine.mEUt <= 0) return;
+        if (!RecipeFluidRequirements.hasNoItemInputs(recipe) || hasItemOutputs(recipe)) return;
+
+        FluidRequirementVector requirement = RecipeFluidRequirements.get(recipe);
+        // not maxAmperesIn(), which is derived from the mEUt of the recipe, so it grows with the batch.
+        long maxEUt = Math.min(GTValues.V[machine.mTier] * machine.mAmperage, Integer.MAX_VALUE);
+        long extra = Math.min(maxBatchSize - 1, requirement.maxParallel(mf.getInputFluids()));
+        extra = Math.min(extra, maxEUt / machine.mEUt - 1);
+        FluidStack[] recipeOutput = mf.getRecipeOutputAccessor().get();
+        // the output tank must hold the outputs of the whole batch.
+        extra = Math.min(extra, maxOutputTimes(mf.getOutputFluids(), recipeOutput) - 1);
+        if (extra <= 0 || !requirement.consume(mf.getInputFluids(), (int) extra)) return;
+
+        batchSize = (int) extra + 1;
+        for (FluidStack output : recipeOutput) {
+            if (output != null) output.amount *= batchSize;
+        }
+        machine.mEUt *= batchSize;
+    }
+
+    private static boolean hasItemOutputs(GTRecipe recipe) {
+        if (recipe.mOutputs == null) return false;
+        for (ItemStack item : recipe.mOutputs) {
+            if (item != null) return true;
+        }
+        return false;
+    }
+
+    /// Compute how many times the outputs can be filled into the tank at once, by the same rules as [IUnconfinedFluidTank#canFillAll(FluidStack[])]:
+    /// an output goes to the slot with the same fluid, or takes an empty slot if there is none.
+    private static long maxOutputTimes(IUnconfinedFluidTank tank, @Nullable FluidStack[] outputs) {
+        int capacity = tank.getCapacity();
+        long times = Long.MAX_VALUE;
+        int unmerged = 0;
+        output:
+        for (FluidStack output : outputs) {
+            if (output == null || output.amount <= 0) continue;
+            for (int i = 0; i < tank.getSlotCount(); i++) {
+                FluidStack slot = tank.get(i);
+                if (slot != null && slot.isFluidEqual(output)) {
+                    times = Math.min(times, (capacity - slot.amount) / output.amount);
+                    continue output;
+                }
+            }
+            unmerged++;
+            times = Math.min(times, capacity / output.amount);
+        }
+        int empty = 0;
+        for (int i = 0; i < tank.getSlotCount(); i++) {
+            if (tank.get(i) == null) empty++;
+        }
+        return empty >= unmerged ? times : 0;
+    }
+
+    /// @return `true` if a recipe lookup is running on a worker thread.
+    public boolean hasPendingSearch() {
+        return searchPending;
+    }
+
+    /// Mark the recipe lookup as submitted to a worker thread.
+    ///
+    /// @param signature the input signature of the snapshot.
+    public void onRecipeSearchSubmitted(long signature) {
+        searchPending = true;
+        searchCompleted = false;
+        pendingSearchSignature = signature;
+    }
+
+    /// Record the result of the recipe lookup, called on the server thread by the completion callback.
+    public void onRecipeSearchCompleted(@Nullable GTRecipe recipe, @Nullable Throwable error) {
+        if (!searchPending) return;
+        if (error != null) {
+            Unconfined.log.warn("Failed to find the recipe off the server thread", error);
+        }
+        searchCompleted = true;
+        searchFailed = error != null;
+        searchResult = recipe;
+    }
+
+    /// Poll the recipe lookup running on a worker thread.
+    ///
+    /// @param signature the current input signature, the result is dropped if the inputs have changed since the snapshot.
+    public SearchPoll pollRecipeSearch(long signature) {
+        if (!searchPending) return SearchPoll.NONE;
+        if (!searchCompleted) return SearchPoll.RUNNING;
+        GTRecipe recipe = searchResult;
+        searchPending = false;
+        searchCompleted = false;
+        searchResult = null;
+        if (pendingSearchSignature != signature) return SearchPoll.NONE;
+        if (searchFailed) return SearchPoll.FAILED;
+        searchedRecipe = recipe;
+        searchedRecipeReady = true;
+        return SearchPoll.READY;
+    }
+
+    /// @return the recipe found by the worker thread, without taking it.
+    public @Nullable GTRecipe peekSearchedRecipe() {
+        return searchedRecipe;
+    }
+
+    /// Take the recipe found by the worker thread, which can only be taken once.
+    public @Nullable GTRecipe takeSearchedRecipe() {
+        GTRecipe recipe = searchedRecipe;
+        searchedRecipe = null;
+        searchedRecipeReady = false;
+        return recipe;
+    }
+
+    /// @return the current status of the machine, for inspection.
+    public Status getStatus() {
+        if (sleeping) return sleepWithEnergy ? Status.SLEEPING_NO_RECIPE : Status.SLEEPING_NO_POWER;
+        if (outputBlocked) return Status.OUTPUT_BLOCKED;
+        return Status.AWAKE;
+    }
+
+    /// Put the machine to sleep if it's idle and has nothing to do until something changes.
+    ///
+    /// A machine is put to sleep when it's not running, the last recipe lookup failed with the current inputs or it doesn't have enough energy to check the recipe,
+    /// and it doesn't have pending outputs to push out.
+    public void trySleep(MTEBasicMachine machine, UnconfinedMultiFluidBasicMachine mf, long tick) {
+        recheckRequested = false;
+        if (!sleepEnabled || sleeping || machine.mMaxProgresstime > 0 || searchPending || deferred) return;
+        if (!isOutputSettled(machine, mf)) return;
+
+        IGregTechTileEntity base = machine.getBaseMetaTileEntity();
+        boolean hasEnergy = hasEnoughEnergyToCheckRecipe(machine, base);
+        long signature = computeInputSignature(machine, mf);
+        if (hasEnergy && !isInputUnchangedSinceFailure(signature)) return;
+
+        sleeping = true;
+        sleepSignature = signature;
+        sleepInputVersion = mf.getInputFluids().getVersion();
+        sleepWithEnergy = hasEnergy;
+        nextSleepSignatureCheck = tick + SLEEP_SIGNATURE_CHECK_INTERVAL;
+    }
+
+    /// Check if the sleeping machine should wake up.
+    ///
+    /// The machine wakes up when the input tank is changed, the inventory is modified, the work is enabled, the power is back, or [#wakeUp()] is called.
+    /// The full input signature is also verified periodically to catch the changes made directly to the [FluidStack]s.
+    ///
+    /// @return `true` if the machine is still sleeping, and the `onPostTick` should be skipped.
+    public boolean keepSleeping(MTEBasicMachine machine, UnconfinedMultiFluidBasicMachine mf, long tick) {
+        if (!sleeping) return false;
+        IGregTechTileEntity base = machine.getBaseMetaTileEntity();
+        boolean wake = wakeRequested
+            || base.hasInventoryBeenModified()
+            || base.hasWorkJustBeenEnabled()
+            || mf.getInputFluids().getVersion() != sleepInputVersion
+            || !sleepWithEnergy && hasEnoughEnergyToCheckRecipe(machine, base);
+        if (!wake && tick >= nextSleepSignatureCheck) {
+            nextSleepSignatureCheck = tick + SLEEP_SIGNATURE_CHECK_INTERVAL;
+            wake = computeInputSignature(machine, mf) != sleepSignature;
+        }
+        if (wake) {
+            sleeping = false;
+            wakeRequested = false;
+            recheckRequested = true;
+        }
+        return sleeping;
+    }
+
+    /// Wake up the machine in the next tick, if it's sleeping.
+    public void wakeUp() {
+        if (sleeping) wakeRequested = true;
+    }
+
+    private static boolean isOutputSettled(MTEBasicMachine machine, UnconfinedMultiFluidBasicMachine mf) {
+        // pending outputs are pushed out in onPostTick, so the machine must stay awake for them.
+        if (machine.mItemTransfer && !machine.isOutputEmpty()) return false;
+        if (machine.mFluidTransfer) {
+            IUnconfinedFluidTank outputs = mf.getOutputFluids();
+            for (int i = 0; i < outputs.getSlotCount(); i++) {
+                // a pending slot is occupied, no need to decode it.
+                if (outputs.isPending(i) || outputs.get(i) != null) return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasEnoughEnergyToCheckRecipe(MTEBasicMachine machine, IGregTechTileEntity base) {
+        // same as MTEBasicMachine#hasEnoughEnergyToCheckRecipe()
+        return base.isUniversalEnergyStored(machine.getMinimumStoredEU() / 2);
+    }
+
+    /// Compute a cheap signature of the recipe inputs of the machine.
+    ///
+    /// The signature covers the version stamp and the contents of the input tank, and the input, special and circuit item slots.
+    /// The contents are included as the overridden slots can be modified by GregTech without touching the version stamp.
+    /// The slots not decoded yet are not decoded for this, as they can't be changed without being decoded first, see [IUnconfinedFluidTank#isPending(int)].
+    public static long computeInputSignature(MTEBasicMachine machine, UnconfinedMultiFluidBasicMachine mf) {
+        IUnconfinedFluidTank inputs = mf.getInputFluids();
+        long h = inputs.getVersion();
+        for (int i = 0; i < inputs.getSlotCount(); i++) {
+            h = inputs.isPending(i) ? mix(h, PENDING_SLOT) : mix(h, inputs.get(i));
+        }
+        ItemStack[] inventory = machine.mInventory;
+        for (int i = machine.getInputSlot(), end = i + machine.mInputSlotCount; i < end; i++) {
+            h = mix(h, inventory[i]);
+        }
+        h = mix(h, machine.getSpecialSlot());
+        h = mix(h, inventory[machine.getCircuitSlot()]);
+        return h;
+    }
+
+    /// Compute a cheap signature of the output tank of the machine.
+    ///
+    /// Like the input signature, the contents are included for the overridden slots.
+    public static long computeOutputSignature(UnconfinedMultiFluidBasicMachine mf) {
+        IUnconfinedFluidTank outputs = mf.getOutputFluids();
+        long h = outputs.getVersion();
+        for (int i = 0; i < outputs.getSlotCount(); i++) {
+            h = outputs.isPending(i) ? mix(h, PENDING_SLOT) : mix(h, outputs.get(i));
+        }
+        return h;
+    }
+
+    private static long mix(long h, @Nullable FluidStack stack) {
+        if (stack == null) return mix(h, 0);
+        h = mix(h, System.identityHashCode(stack.getFluid()));
+        h = mix(h, stack.amount);
+        return mix(h, System.identityHashCode(stack.tag));
+    }
+
+    private static long mix(long h, @Nullable ItemStack stack) {
+        if (stack == null) return mix(h, 0);
+        h = mix(h, System.identityHashCode(stack.getItem()));
+        h = mix(h, stack.getItemDamage());
+        h = mix(h, stack.stackSize);
+        return mix(h, System.identityHashCode(stack.stackTagCompound));
+    }
+
+    private static long mix(long h, long value) {
+        h = (h ^ value) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    public enum SearchPoll {
+        /// no lookup is running, or the result is outdated.
+        NONE,
+        RUNNING,
+        /// the result is ready for the current inputs, see [#takeSearchedRecipe()].
+        READY,
+        /// the lookup has thrown, and should be done on the server thread instead.
+        FAILED,
+    }
+
+    public enum Status {
+        AWAKE,
+        SLEEPING_NO_RECIPE,
+        SLEEPING_NO_POWER,
+        OUTPUT_BLOCKED,
+    }
+
+    /// The accessor to the [MultiFluidMachineState] of the machine, implemented by [unconfined.core.mixins.multifluid.MTEBasicMachineMixin].
+    public interface Holder {
+        MultiFluidMachineState unconfined$getMultiFluidState();
+    }
+}
@@ -0,0 +1,115 @@
+package unconfined.mod.gregtech;
+
+import lombok.Getter;
+import org.jetbrains.annotations.ApiStatus;
+import unconfined.mod.UnconfinedConfig;
+
+/// Caps the wall time spent per server tick in the recipe checks and output dumping of the multi-fluid machines.
+///
+/// The deferred work is served first-in first-out across the ticks, by the tickets handed out to the deferred machines:
+///
+/// - at the start of every tick, the tickets that fit in the budget are admitted, estimated by the average time of the past work;
+/// - a deferred machine runs once its ticket is admitted, and keeps waiting otherwise;
+/// - a machine with new work only runs if nobody is waiting beyond the admitted tickets and the budget is not used up, counting the admitted tickets as spent,
+///   otherwise it takes the next ticket.
+///
+/// So the machines ticked early in the world don't always win the budget, and the ones ticked late don't always lose it;
+/// once the budget is short, every machine waits its turn in the queue, and the carry-over of a tick is bounded by the budget too.
+///
+/// A machine is decided at most once per tick, the later calls in the same tick get the same decision,
+/// so the output dumping and the recipe check of a machine in the same tick share one turn.
+///
+/// All the methods are expected to be called on the server thread.
+@ApiStatus.Internal
+public final class TickBudgetGovernor {
+
+    public static final TickBudgetGovernor INSTANCE = new TickBudgetGovernor(UnconfinedConfig.INSTANCE.getTickBudgetMicros() * 1000L);
+
+    private final long budgetNanos;
+
+    private long spentNanos;
+    private int deferredCount;
+    /// The count of the ticks started, to tell the decisions made in this tick.
+    private long tickCount;
+
+    /// The moving average of the time of one work, to estimate how many tickets fit in the budget.
+    private long averageWorkNanos;
+    /// The ticket to be handed out to the next deferred machine.
+    private long nextTicket;
+    /// The tickets below are admitted in this tick, or have been in the earlier ticks.
+    private long admittedBelow;
+    /// The count of the tickets admitted in this tick but not run yet, whose time is reserved in the budget.
+    private long reservedTickets;
+
+    /// the time spent in the last tick, for inspection.
+    @Getter
+    private long lastTickSpentNanos;
+    /// the count of works deferred in the last tick, for inspection.
+    @Getter
+    private int lastTickDeferredCount;
+
+    private TickBudgetGovernor(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    public boolean isEnabled() {
+        return budgetNanos > 0;
+    }
+
+    /// Start a new tick, called at the start of every server tick.
+    public void onTickStart() {
+        lastTickSpentNanos = spentNanos;
+        lastTickDeferredCount = deferredCount;
+        spentNanos = 0;
+        deferredCount = 0;
+        tickCount++;
+        // the tickets admitted but not run are abandoned, e.g., the machine is unloaded.
+        long capacity = averageWorkNanos <= 0 ? Long.MAX_VALUE : Math.max(1, budgetNanos / averageWorkNanos);
+        long waiting = nextTicket - admittedBelow;
+        reservedTickets = Math.min(waiting, capacity);
+        admittedBelow += reservedTickets;
+    }
+
+    /// Check if the work of the machine should be deferred to a later tick.
+    ///
+    /// @return `true` if the machine should skip the work in this tick, and call this again in the next tick.
+    public boolean tryDefer(MultiFluidMachineState state) {
+        if (!isEnabled()) return false;
+        if (state.getDecidedTick() == tickCount) {
+            // decided in this tick already.
+            return state.isDeferred();
+        }
+        state.setDecidedTick(tickCount);
+        if (state.isDeferred()) {
+            if (state.getDeferredTicket() >= admittedBelow) {
+                deferredCount++;
+                return true;
+            }
+            // it's the turn of this machine.
+            state.setDeferred(false);
+            if (reservedTickets > 0) reservedTickets--;
+            return false;
+        }
+        if (admittedBelow == nextTicket && spentNanos + reservedTickets * averageWorkNanos < budgetNanos) {
+            return false;
+        }
+        state.setDeferred(true);
+        state.setDeferredTicket(nextTicket++);
+        deferredCount++;
+        return true;
+    }
+
+    /// @return the start time of the work to be recorded by [#record(long)].
+    public long begin() {
+        return isEnabled() ? System.nanoTime() : 0;
+    }
+
+    /// Record the time spent since the given start time to the budget of this tick.
+    public void record(long start) {
+        if (isEnabled()) {
+            long spent = System.nanoTime() - start;
+            spentNanos += spent;
+            averageWorkNanos = averageWorkNanos == 0 ? spent : averageWorkNanos + (spent - averageWorkNanos) / 8;
+        }
+    }
+}
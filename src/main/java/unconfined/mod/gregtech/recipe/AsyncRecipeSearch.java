@@ -0,0 +1,105 @@
+package unconfined.mod.gregtech.recipe;
+
+import gregtech.api.enums.GTValues;
+import gregtech.api.metatileentity.implementations.MTEBasicMachine;
+import gregtech.api.recipe.RecipeMap;
+import gregtech.api.util.GTRecipe;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.FluidStack;
+import org.jetbrains.annotations.ApiStatus;
+import unconfined.api.gregtech.UnconfinedMultiFluidBasicMachine;
+import unconfined.mod.UnconfinedConfig;
+import unconfined.mod.gregtech.MultiFluidMachineState;
+import unconfined.util.UnconfinedExecutor;
+import unconfined.util.Utils;
+import unconfined.util.fluidtank.IUnconfinedFluidTank;
+
+
+/// Runs the recipe lookups of the multi-fluid machines on the workers of [UnconfinedExecutor#shared()].
+///
+/// The lookup only reads the recipe map and a snapshot of the inputs, so it's safe to run off the server thread, as long as nothing is built lazily by the lookup.
+/// This relies on:
+///
+/// - the item and fluid indices of GregTech's [gregtech.api.recipe.RecipeMapBackend] are built by `compileRecipe` when the recipes are added, and only read by the lookups;
+/// - the indices of [FluidIndexedRecipeMapBackend] are built before the search is started, see [FluidIndexedRecipeMapBackend#buildAllFluidIndices()];
+/// - the recipes are not modified while the server is running, except by the reloads on the server thread.
+///
+/// So the search is only enabled once the server has started and the indices are built, see [#start()].
+/// A reload of any recipe map suspends it, and it's resumed at the next server tick after the indices are rebuilt.
+/// A lookup already running across the reload may still fail, which makes the machine find the recipe on the server thread instead.
+///
+/// The result is committed by the machine on the server thread, see [unconfined.mod.gregtech.MultiFluidMachineState#pollRecipeSearch(long)].
+@ApiStatus.Internal
+public final class AsyncRecipeSearch {
+
+    private static final boolean ENABLED = UnconfinedConfig.INSTANCE.isAsyncRecipeSearchEnabled();
+
+    /// `true` if the server is running and the indices are built.
+    private static volatile boolean ready;
+    /// `true` if the server is running, only accessed on the server thread.
+    private static boolean started;
+
+    private AsyncRecipeSearch() {
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED && ready;
+    }
+
+    /// Enable the search, called once the server has started and the indices are built.
+    public static void start() {
+        started = true;
+        ready = true;
+    }
+
+    public static void stop() {
+        started = false;
+        ready = false;
+    }
+
+    /// Suspend the search until the indices of the reloaded recipes are rebuilt at the next server tick.
+    public static void onRecipesReloaded() {
+        if (!ready) return;
+        ready = false;
+        UnconfinedExecutor.shared().runOnServerThread(() -> {
+            if (!started || ready) return;
+            FluidIndexedRecipeMapBackend.buildAllFluidIndices();
+            ready = true;
+        });
+    }
+
+    /// Take a snapshot of the inputs of the machine, and find the recipe for them on a worker thread.
+    ///
+    /// The result is passed to [MultiFluidMachineState#onRecipeSearchCompleted(GTRecipe, Throwable)] on the server thread.
+    ///
+    /// @param inputs    the item inputs of the machine, see `MTEBasicMachine#getAllInputs()`.
+    /// @param signature the input signature of the snapshot.
+    /// @return `false` if the workers are saturated, and the recipe should be found on the server thread instead.
+    public static boolean submit(MTEBasicMachine machine, UnconfinedMultiFluidBasicMachine mf, ItemStack[] inputs, MultiFluidMachineState state, long signature) {
+        RecipeMap<?> recipeMap = machine.getRecipeMap();
+        IUnconfinedFluidTank tank = mf.getInputFluids();
+        FluidStack[] fluids = Utils.makeArray(new FluidStack[tank.getSlotCount()], i -> {
+            FluidStack fluid = tank.get(i);
+            return fluid == null ? null : fluid.copy();
+        });
+        ItemStack[] items = new ItemStack[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            items[i] = inputs[i] == null ? null : inputs[i].copy();
+        }
+        ItemStack specialSlot = machine.getSpecialSlot() == null ? null : machine.getSpecialSlot().copy();
+        long voltage = GTValues.V[machine.mTier];
+        boolean submitted = UnconfinedExecutor.shared().trySubmit(
+            () -> recipeMap.findRecipeQuery()
+                .items(items)
+                .fluids(fluids)
+                .specialSlot(specialSlot)
+                .voltage(voltage)
+                .find(),
+            state::onRecipeSearchCompleted
+        );
+        if (submitted) {
+            state.onRecipeSearchSubmitted(signature);
+        }
+        return submitted;
+    }
+}
@@ -0,0 +1,166 @@
+package unconfined.mod.gregtech.recipe;
+
+import cpw.mods.fml.common.Loader;
+import cpw.mods.fml.common.ModContainer;
+import gregtech.api.util.GTRecipe;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import lombok.extern.log4j.Log4j2;
+import net.minecraftforge.fluids.Fluid;
+import net.minecraftforge.fluids.FluidStack;
+import org.jetbrains.annotations.ApiStatus;
+import org.jspecify.annotations.Nullable;
+import unconfined.mod.gregtech.recipe.FluidIndexedRecipeMapBackend.FluidIndex;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/// Persists the [FluidIndex] of the recipe maps under `config/unconfined/recipe-index`, so that they are loaded instead of rebuilt on the next launch.
+///
+/// The files are named by the recipe map and a hash of everything the index depends on:
+/// the mod list, and the fluid inputs and the item-input presence of every recipe in the iteration order.
+/// The amounts and the items themselves are not hashed, as the index doesn't depend on them, so the hash is a plain loop without allocations per recipe.
+///
+/// A file is never overwritten once written, as it may still be memory-mapped, which locks it on Windows.
+/// A changed hash writes a new file instead, and the outdated files of the map are deleted where possible.
+@Log4j2
+@ApiStatus.Internal
+public final class FluidIndexStore {
+
+    private static final int MAGIC = 0x55464958; // UFIX
+    private static final int FORMAT_VERSION = 2;
+
+    private static volatile long modListHash;
+
+    private FluidIndexStore() {
+    }
+
+    /// Load the index of the recipes from its file, or build it and save it for the next launch.
+    ///
+    /// @param name the name of the recipe map, usually its unlocalized name.
+    public static FluidIndex loadOrBuild(String name, GTRecipe[] recipes) {
+        File directory = new File(Loader.instance().getConfigDir(), "unconfined/recipe-index");
+        long hash = computeContentHash(recipes);
+        String prefix = name + "-";
+        File file = new File(directory, prefix + Long.toHexString(hash) + ".bin");
+        if (file.isFile()) {
+            try {
+                FluidIndex index = load(file, hash, recipes);
+                if (index != null) {
+                    log.debug("Loaded fluid index of {} from {}", name, file);
+                    return index;
+                }
+                log.warn("Fluid index file {} doesn't fit the recipes, rebuilding", file);
+            } catch (Exception e) {
+                log.warn("Failed to load fluid index of {} from {}, rebuilding", name, file, e);
+            }
+            // the broken file may be mapped, leave it and don't save.
+            return FluidIndex.build(recipes);
+        }
+        FluidIndex index = FluidIndex.build(recipes);
+        try {
+            save(directory, file, hash, index);
+            deleteOutdated(directory, prefix, file);
+        } catch (IOException e) {
+            log.warn("Failed to save fluid index of {} to {}", name, file, e);
+        }
+        return index;
+    }
+
+    private static @Nullable FluidIndex load(File file, long hash, GTRecipe[] recipes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buf.getInt() != MAGIC || buf.getInt() != FORMAT_VERSION || buf.getLong() != hash) {
+                return null;
+            }
+            return FluidIndex.read(buf, recipes);
+        }
+    }
+
+    private static void save(File directory, File file, long hash, FluidIndex index) throws IOException {
+        Files.createDirectories(directory.toPath());
+        // write to a temporary file first, so that a crash in the middle doesn't leave a broken file.
+        File temp = new File(directory, file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(hash);
+            index.write(out);
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void deleteOutdated(File directory, String prefix, File current) {
+        File[] files = directory.listFiles((dir, fileName) -> fileName.startsWith(prefix) && fileName.endsWith(".bin"));
+        if (files == null) return;
+        for (File file : files) {
+            // the names of other maps may share the prefix, only the hex hash may follow it.
+            String hex = file.getName().substring(prefix.length(), file.getName().length() - ".bin".length());
+            if (!file.equals(current) && hex.matches("[0-9a-f]+") && !file.delete()) {
+                log.debug("Unable to delete outdated fluid index file {}, probably still mapped", file);
+            }
+        }
+    }
+
+    /// Hash the mod list, and the fluid inputs and the item-input presence of the recipes in the iteration order, which the index depends on.
+    private static long computeContentHash(GTRecipe[] recipes) {
+        Reference2LongOpenHashMap<Fluid> nameHashes = new Reference2LongOpenHashMap<>();
+        long h = mix(getModListHash(), FORMAT_VERSION);
+        h = mix(h, recipes.length);
+        for (GTRecipe recipe : recipes) {
+            if (recipe.mFluidInputs != null) {
+                for (FluidStack fluid : recipe.mFluidInputs) {
+                    if (fluid == null || fluid.getFluid() == null) {
+                        h = mix(h, 0);
+                        continue;
+                    }
+                    long nameHash = nameHashes.getLong(fluid.getFluid());
+                    if (nameHash == 0) {
+                        nameHash = hashString(fluid.getFluid().getName());
+                        nameHashes.put(fluid.getFluid(), nameHash);
+                    }
+                    h = mix(h, nameHash);
+                    h = mix(h, fluid.tag == null ? 0 : fluid.tag.hashCode());
+                }
+            }
+            h = mix(h, RecipeFluidRequirements.hasNoItemInputs(recipe) ? -1 : -2);
+        }
+        return h;
+    }
+
+    private static long getModListHash() {
+        long h = modListHash;
+        if (h == 0) {
+            h = 1;
+            for (ModContainer mod : Loader.instance().getActiveModList()) {
+                h = mix(h, hashString(mod.getModId()));
+                h = mix(h, hashString(mod.getVersion()));
+            }
+            modListHash = h;
+        }
+        return h;
+    }
+
+    /// 64-bit FNV-1a of the string.
+    private static long hashString(@Nullable String s) {
+        if (s == null) return 0;
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return h;
+    }
+
+    private static long mix(long h, long v) {
+        h = (h ^ v) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+}
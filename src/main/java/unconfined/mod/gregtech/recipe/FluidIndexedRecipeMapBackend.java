@@ -0,0 +1,372 @@
+package unconfined.mod.gregtech.recipe;
+
+import gregtech.api.recipe.RecipeMapBackend;
+import gregtech.api.recipe.RecipeMapBackendPropertiesBuilder;
+import gregtech.api.util.GTRecipe;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import lombok.extern.log4j.Log4j2;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraftforge.fluids.Fluid;
+import net.minecraftforge.fluids.FluidRegistry;
+import net.minecraftforge.fluids.FluidStack;
+import org.jspecify.annotations.Nullable;
+import unconfined.mod.UnconfinedConfig;
+import unconfined.util.UnconfinedExecutor;
+import unconfined.util.fluidtank.FluidKey;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/// A [RecipeMapBackend] that finds the recipes without item inputs by an inverted index from the fluids to the recipes.
+///
+/// GregTech narrows the candidates by the items first, and falls back to scan every recipe that shares any fluid with the inputs.
+/// This is slow for the maps with lots of fluid-only recipes, like the Large Chemical Reactor (`gt.recipe.largechemicalreactor`) and the Industrial Electrolyzer (`gtpp.recipe.multielectro`) maps, which are the only ones it's attached to.
+/// Instead, this backend counts the hits of each recipe from the index of every input fluid, and only the recipes that have all their fluids hit are the candidates.
+///
+/// The index is rebuilt lazily from [#getAllRecipes()] once the recipes are changed.
+/// If the backend is named, the index built by [#buildAllFluidIndices()] is persisted by [FluidIndexStore], and loaded back on the next launch if the recipes are unchanged.
+///
+/// Attach it to a recipe map by [unconfined.api.event.RecipeMapBuildingEvent#setBackendCreator(gregtech.api.recipe.BackendCreator)].
+@Log4j2
+public class FluidIndexedRecipeMapBackend extends RecipeMapBackend {
+
+    private static final List<FluidIndexedRecipeMapBackend> BACKENDS = new CopyOnWriteArrayList<>();
+
+    /// the name to persist the index as, usually the unlocalized name of the recipe map.
+    private final @Nullable String persistName;
+    private volatile @Nullable FluidIndex fluidIndex;
+
+    public FluidIndexedRecipeMapBackend(RecipeMapBackendPropertiesBuilder propertiesBuilder) {
+        this(propertiesBuilder, null);
+    }
+
+    public FluidIndexedRecipeMapBackend(RecipeMapBackendPropertiesBuilder propertiesBuilder, @Nullable String persistName) {
+        super(propertiesBuilder);
+        this.persistName = persistName;
+        BACKENDS.add(this);
+    }
+
+    /// @return all the created backends.
+    public static List<FluidIndexedRecipeMapBackend> getBackends() {
+        return Collections.unmodifiableList(BACKENDS);
+    }
+
+    /// Build the indices of all the backends on the workers of [UnconfinedExecutor#shared()], and wait for them to finish.
+    ///
+    /// It's called once the server is started, after the scripts and other mods have done modifying the recipes.
+    /// The indices are independent of each other, and the recipes must not be modified until this returns.
+    public static void buildAllFluidIndices() {
+        if (BACKENDS.isEmpty()) return;
+        long start = System.nanoTime();
+        List<CompletableFuture<FluidIndex>> tasks = new ArrayList<>(BACKENDS.size());
+        for (FluidIndexedRecipeMapBackend backend : BACKENDS) {
+            CompletableFuture<FluidIndex> task = UnconfinedExecutor.shared().trySubmit(backend::loadOrBuildFluidIndex);
+            if (task != null) {
+                tasks.add(task);
+            } else {
+                // the workers are busy, build it here.
+                backend.loadOrBuildFluidIndex();
+            }
+        }
+        for (CompletableFuture<FluidIndex> task : tasks) {
+            task.join();
+        }
+        log.info("Built {} fluid indices in {} ms", BACKENDS.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public GTRecipe compileRecipe(GTRecipe recipe) {
+        invalidateFluidIndex();
+        return super.compileRecipe(recipe);
+    }
+
+    @Override
+    public void reInit() {
+        invalidateFluidIndex();
+        super.reInit();
+    }
+
+    public void invalidateFluidIndex() {
+        fluidIndex = null;
+    }
+
+    /// @return the fluid index, built if absent.
+    public FluidIndex getFluidIndex() {
+        FluidIndex index = fluidIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = fluidIndex;
+                if (index == null) {
+                    index = FluidIndex.build(getAllRecipes().toArray(new GTRecipe[0]));
+                    fluidIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /// @return the fluid index, loaded from [FluidIndexStore] or built and saved if absent.
+    private FluidIndex loadOrBuildFluidIndex() {
+        if (persistName == null || !UnconfinedConfig.INSTANCE.isFluidIndexPersisted()) {
+            return getFluidIndex();
+        }
+        synchronized (this) {
+            FluidIndex index = fluidIndex;
+            if (index == null) {
+                index = FluidIndexStore.loadOrBuild(persistName, getAllRecipes().toArray(new GTRecipe[0]));
+                fluidIndex = index;
+            }
+            return index;
+        }
+    }
+
+    @Override
+    protected Stream<GTRecipe> doFind(ItemStack[] items, FluidStack[] fluids, @Nullable ItemStack specialSlot, @Nullable GTRecipe cachedRecipe, boolean notUnificated, boolean dontCheckStackSizes, boolean forCollisionCheck) {
+        // only the fluid-only recipes can match the inputs without items, so the fluid index is good enough.
+        if (!forCollisionCheck && isEmpty(items)) {
+            // the machine usually runs the same recipe again.
+            if (cachedRecipe != null && filterFindRecipe(cachedRecipe, items, fluids, specialSlot, dontCheckStackSizes)) {
+                return Stream.of(cachedRecipe);
+            }
+            return getFluidIndex().findFluidOnly(fluids)
+                .stream()
+                .filter(recipe -> filterFindRecipe(recipe, items, fluids, specialSlot, dontCheckStackSizes));
+        }
+        return super.doFind(items, fluids, specialSlot, cachedRecipe, notUnificated, dontCheckStackSizes, forCollisionCheck);
+    }
+
+    private static boolean isEmpty(ItemStack[] items) {
+        for (ItemStack item : items) {
+            if (item != null) return false;
+        }
+        return true;
+    }
+
+    /// An immutable inverted index from the fluids to the recipes that take the fluid as an input.
+    ///
+    /// The recipes are identified by their ordinals in the iteration order of [#getAllRecipes()].
+    /// The lookups are thread-safe, each thread counts the hits in its own scratch arrays, which are reused across the lookups.
+    public static final class FluidIndex {
+        private final GTRecipe[] recipes;
+        /// the count of distinct fluid inputs of each recipe.
+        private final int[] fluidCounts;
+        private final boolean[] fluidOnly;
+        /// the postings of each fluid, one for each distinct tag.
+        private final Map<Fluid, Posting[]> postings;
+        private final ThreadLocal<Scratch> scratch;
+
+        private FluidIndex(GTRecipe[] recipes, int[] fluidCounts, boolean[] fluidOnly, Map<Fluid, Posting[]> postings) {
+            this.recipes = recipes;
+            this.fluidCounts = fluidCounts;
+            this.fluidOnly = fluidOnly;
+            this.postings = postings;
+            this.scratch = ThreadLocal.withInitial(() -> new Scratch(recipes.length));
+        }
+
+        public static FluidIndex build(GTRecipe[] recipes) {
+            int[] fluidCounts = new int[recipes.length];
+            boolean[] fluidOnly = new boolean[recipes.length];
+            Map<FluidKey, IntArrayList> postings = new HashMap<>();
+            for (int id = 0; id < recipes.length; id++) {
+                GTRecipe recipe = recipes[id];
+                FluidKey[] keys = distinctKeys(recipe.mFluidInputs);
+                fluidCounts[id] = keys.length;
+                fluidOnly[id] = RecipeFluidRequirements.hasNoItemInputs(recipe);
+                for (FluidKey key : keys) {
+                    postings.computeIfAbsent(key, k -> new IntArrayList()).add(id);
+                }
+            }
+            Map<Fluid, Posting[]> postingsByFluid = new HashMap<>(postings.size() * 2);
+            postings.forEach((key, ids) -> {
+                Posting[] existing = postingsByFluid.get(key.getFluid());
+                Posting[] merged = existing == null ? new Posting[1] : Arrays.copyOf(existing, existing.length + 1);
+                merged[merged.length - 1] = new Posting(key.getTag(), ids.toIntArray());
+                postingsByFluid.put(key.getFluid(), merged);
+            });
+            return new FluidIndex(recipes, fluidCounts, fluidOnly, postingsByFluid);
+        }
+
+        /// Find the fluid-only recipes whose fluid inputs are all present in the given fluids, in the order of the recipes.
+        ///
+        /// The amounts are not checked, the results should be filtered by the caller.
+        public List<GTRecipe> findFluidOnly(@Nullable FluidStack[] fluids) {
+            Scratch scratch = this.scratch.get();
+            int[] hits = scratch.hits;
+            IntArrayList touched = scratch.touched;
+            IntArrayList matched = scratch.matched;
+            for (int i = 0; i < fluids.length; i++) {
+                FluidStack fluid = fluids[i];
+                if (fluid == null || fluid.getFluid() == null || isDuplicate(fluids, i)) continue;
+                Posting[] fluidPostings = postings.get(fluid.getFluid());
+                if (fluidPostings == null) continue;
+                for (Posting posting : fluidPostings) {
+                    if (!Objects.equals(posting.tag, fluid.tag)) continue;
+                    for (int id : posting.ids) {
+                        if (fluidOnly[id] && hits[id]++ == 0) touched.add(id);
+                    }
+                    break;
+                }
+            }
+            for (int i = 0; i < touched.size(); i++) {
+                int id = touched.getInt(i);
+                if (hits[id] == fluidCounts[id]) matched.add(id);
+                hits[id] = 0;
+            }
+            touched.clear();
+            if (matched.isEmpty()) return Collections.emptyList();
+            IntArrays.quickSort(matched.elements(), 0, matched.size());
+            List<GTRecipe> result = new ArrayList<>(matched.size());
+            for (int i = 0; i < matched.size(); i++) {
+                result.add(recipes[matched.getInt(i)]);
+            }
+            matched.clear();
+            return result;
+        }
+
+        /// @return the count of the recipes covered by the index.
+        public int size() {
+            return recipes.length;
+        }
+
+        /// Write the index without the recipes, which are expected to be the same when read back.
+        ///
+        /// The fluids are written by their names, as the ids are not stable across the game launches.
+        public void write(DataOutputStream out) throws IOException {
+            out.writeInt(recipes.length);
+            for (int id = 0; id < recipes.length; id++) {
+                out.writeInt(fluidCounts[id]);
+                out.writeBoolean(fluidOnly[id]);
+            }
+            int postingCount = 0;
+            for (Posting[] fluidPostings : postings.values()) {
+                postingCount += fluidPostings.length;
+            }
+            out.writeInt(postingCount);
+            for (Map.Entry<Fluid, Posting[]> entry : postings.entrySet()) {
+                byte[] name = entry.getKey().getName().getBytes(StandardCharsets.UTF_8);
+                for (Posting posting : entry.getValue()) {
+                    writeBytes(out, name);
+                    if (posting.tag != null) {
+                        ByteArrayOutputStream tagBytes = new ByteArrayOutputStream();
+                        CompressedStreamTools.write(posting.tag, new DataOutputStream(tagBytes));
+                        writeBytes(out, tagBytes.toByteArray());
+                    } else {
+                        out.writeInt(-1);
+                    }
+                    out.writeInt(posting.ids.length);
+                    for (int id : posting.ids) {
+                        out.writeInt(id);
+                    }
+                }
+            }
+        }
+
+        /// Read the index written by [#write(DataOutputStream)] for the given recipes.
+        ///
+        /// @return the index, or `null` if it doesn't fit the recipes or any fluid is missing.
+        public static @Nullable FluidIndex read(ByteBuffer buf, GTRecipe[] recipes) throws IOException {
+            if (buf.getInt() != recipes.length) return null;
+            int[] fluidCounts = new int[recipes.length];
+            boolean[] fluidOnly = new boolean[recipes.length];
+            for (int id = 0; id < recipes.length; id++) {
+                fluidCounts[id] = buf.getInt();
+                fluidOnly[id] = buf.get() != 0;
+            }
+            int postingCount = buf.getInt();
+            Map<Fluid, Posting[]> postings = new HashMap<>(postingCount * 2);
+            for (int i = 0; i < postingCount; i++) {
+                Fluid fluid = FluidRegistry.getFluid(new String(readBytes(buf), StandardCharsets.UTF_8));
+                if (fluid == null) return null;
+                byte[] tagBytes = readBytes(buf);
+                NBTTagCompound tag = tagBytes == null
+                    ? null
+                    : CompressedStreamTools.read(new DataInputStream(new ByteArrayInputStream(tagBytes)));
+                int[] ids = new int[buf.getInt()];
+                for (int j = 0; j < ids.length; j++) {
+                    ids[j] = buf.getInt();
+                    if (ids[j] < 0 || ids[j] >= recipes.length) return null;
+                }
+                Posting[] existing = postings.get(fluid);
+                Posting[] merged = existing == null ? new Posting[1] : Arrays.copyOf(existing, existing.length + 1);
+                merged[merged.length - 1] = new Posting(tag, ids);
+                postings.put(fluid, merged);
+            }
+            return new FluidIndex(recipes, fluidCounts, fluidOnly, postings);
+        }
+
+        private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        private static byte @Nullable [] readBytes(ByteBuffer buf) {
+            int length = buf.getInt();
+            if (length < 0) return null;
+            byte[] bytes = new byte[length];
+            buf.get(bytes);
+            return bytes;
+        }
+
+        /// @return `true` if the same fluid is in an earlier slot, which is counted already.
+        private static boolean isDuplicate(@Nullable FluidStack[] fluids, int index) {
+            FluidStack fluid = fluids[index];
+            for (int i = 0; i < index; i++) {
+                FluidStack other = fluids[i];
+                if (other != null && other.getFluid() == fluid.getFluid() && Objects.equals(other.tag, fluid.tag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static FluidKey[] distinctKeys(@Nullable FluidStack @Nullable [] fluids) {
+            if (fluids == null) return new FluidKey[0];
+            List<FluidKey> keys = new ArrayList<>(fluids.length);
+            for (FluidStack fluid : fluids) {
+                if (fluid == null || fluid.getFluid() == null) continue;
+                FluidKey key = FluidKey.of(fluid);
+                if (!keys.contains(key)) keys.add(key);
+            }
+            return keys.toArray(new FluidKey[0]);
+        }
+
+        private static final class Posting {
+            private final @Nullable NBTTagCompound tag;
+            private final int[] ids;
+
+            private Posting(@Nullable NBTTagCompound tag, int[] ids) {
+                this.tag = tag;
+                this.ids = ids;
+            }
+        }
+
+        private static final class Scratch {
+            /// the hit counts of each recipe, all zeros between the lookups.
+            private final int[] hits;
+            private final IntArrayList touched = new IntArrayList();
+            private final IntArrayList matched = new IntArrayList();
+
+            private Scratch(int recipeCount) {
+                this.hits = new int[recipeCount];
+            }
+        }
+    }
+}
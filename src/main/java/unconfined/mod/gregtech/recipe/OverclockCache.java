@@ -0,0 +1,89 @@
+package unconfined.mod.gregtech.recipe;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import gregtech.api.metatileentity.implementations.MTEBasicMachine;
+import gregtech.api.util.GTRecipe;
+import org.jetbrains.annotations.ApiStatus;
+
+/// The overclocked EU/t and duration of the recipes, cached per (recipe, tier, amperage) and shared by all the multi-fluid machines.
+///
+/// The table is indexed by the tier, each holding the recipes weakly. The amperage is stored within the entry, and a mismatch is a miss.
+/// It's the fixed `mAmperage` of the machine, not `maxAmperesIn()`, which is derived from the `mEUt` of the current recipe.
+/// The machines overriding `calculateCustomOverclock` are not cached, as their results may depend on more than these.
+///
+/// The cache is cleared when any recipe map is reloaded, see [unconfined.api.event.RecipeMapReloadedEvent].
+@ApiStatus.Internal
+public final class OverclockCache {
+
+    private static final int TIER_COUNT = 16;
+
+    @SuppressWarnings("unchecked")
+    private static final Cache<GTRecipe, Entry>[] TABLE = new Cache[TIER_COUNT];
+
+    static {
+        for (int i = 0; i < TIER_COUNT; i++) {
+            TABLE[i] = CacheBuilder.newBuilder().weakKeys().build();
+        }
+    }
+
+    private static final ClassValue<Boolean> OVERRIDDEN = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> c = type; c != MTEBasicMachine.class && c != null; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod("calculateCustomOverclock", GTRecipe.class);
+                    return true;
+                } catch (NoSuchMethodException ignored) {
+                }
+            }
+            return false;
+        }
+    };
+
+    private OverclockCache() {
+    }
+
+    /// @return `true` if the overclock of the machine can be served from the cache.
+    public static boolean isCacheable(MTEBasicMachine machine) {
+        return machine.mTier >= 0 && machine.mTier < TIER_COUNT
+            && !machine.getBaseMetaTileEntity().isSteampowered()
+            && !OVERRIDDEN.get(machine.getClass());
+    }
+
+    /// Apply the overclock of the recipe to the machine from the cache.
+    ///
+    /// @return `true` if applied, otherwise the overclock should be calculated and then [stored][#store(MTEBasicMachine, GTRecipe)].
+    public static boolean tryApply(MTEBasicMachine machine, GTRecipe recipe) {
+        Entry entry = TABLE[machine.mTier].getIfPresent(recipe);
+        if (entry != null && entry.amperage == machine.mAmperage) {
+            machine.mEUt = entry.eut;
+            machine.mMaxProgresstime = entry.duration;
+            return true;
+        }
+        return false;
+    }
+
+    /// Cache the overclock of the recipe just calculated by the machine, i.e., its `mEUt` and `mMaxProgresstime`.
+    public static void store(MTEBasicMachine machine, GTRecipe recipe) {
+        TABLE[machine.mTier].put(recipe, new Entry(machine.mAmperage, machine.mEUt, machine.mMaxProgresstime));
+    }
+
+    public static void invalidate() {
+        for (Cache<GTRecipe, Entry> cache : TABLE) {
+            cache.invalidateAll();
+        }
+    }
+
+    private static final class Entry {
+        private final int amperage;
+        private final int eut;
+        private final int duration;
+
+        private Entry(int amperage, int eut, int duration) {
+            this.amperage = amperage;
+            this.eut = eut;
+            this.duration = duration;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package unconfined.mod.gregtech.recipe;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import gregtech.api.util.GTRecipe;
+import net.minecraft.item.ItemStack;
+import org.jetbrains.annotations.ApiStatus;
+import unconfined.util.fluidtank.FluidRequirementVector;
+
+/// The [FluidRequirementVector]s of the recipes, compiled on the first use.
+///
+/// The recipes are weakly referenced, and the cache is cleared when any recipe map is reloaded.
+@ApiStatus.Internal
+public final class RecipeFluidRequirements {
+
+    private static final LoadingCache<GTRecipe, FluidRequirementVector> VECTORS = CacheBuilder.newBuilder()
+        .weakKeys()
+        .build(CacheLoader.from((GTRecipe recipe) -> FluidRequirementVector.of(recipe.mFluidInputs)));
+
+    private RecipeFluidRequirements() {
+    }
+
+    public static FluidRequirementVector get(GTRecipe recipe) {
+        return VECTORS.getUnchecked(recipe);
+    }
+
+    public static void invalidate() {
+        VECTORS.invalidateAll();
+    }
+
+    /// @return `true` if the recipe takes no item, so the fluids are all to match.
+    public static boolean hasNoItemInputs(GTRecipe recipe) {
+        if (recipe.mInputs == null) return true;
+        for (ItemStack item : recipe.mInputs) {
+            if (item != null) return false;
+        }
+        return true;
+    }
+}
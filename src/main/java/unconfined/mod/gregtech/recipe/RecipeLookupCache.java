@@ -0,0 +1,169 @@
+package unconfined.mod.gregtech.recipe;
+
+import gregtech.api.recipe.RecipeMap;
+import gregtech.api.util.GTRecipe;
+import it.unimi.dsi.fastutil.ints.IntRBTreeSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import lombok.Getter;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.Fluid;
+import net.minecraftforge.fluids.FluidStack;
+import org.jetbrains.annotations.ApiStatus;
+import org.jspecify.annotations.Nullable;
+import unconfined.mod.UnconfinedConfig;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/// A recipe lookup cache shared by all the multi-fluid machines, keyed by the recipe map, the voltage tier, the kinds of the inputs and their amount thresholds.
+///
+/// The fluid amounts are bucketed by the distinct amounts the recipes of the map require of that fluid,
+/// so two lookups with the same key satisfy exactly the same fluid inputs of every recipe, and GregTech would find the same recipe by its priority.
+/// The identical machines in a factory still share the same entries unless they are on different sides of a threshold.
+/// The item stack sizes are part of the key as is.
+///
+/// A hit is verified by [GTRecipe#isRecipeInputEqual(boolean, FluidStack\[\], ItemStack...)] before returned, so a stale or colliding entry is a miss.
+/// Only the found recipes are cached, and the least recently used entry is evicted once the cache is full.
+///
+/// The cache is cleared when any recipe map is reloaded, see [unconfined.api.event.RecipeMapReloadedEvent].
+@ApiStatus.Internal
+public final class RecipeLookupCache {
+
+    public static final RecipeLookupCache INSTANCE = new RecipeLookupCache(UnconfinedConfig.INSTANCE.getRecipeLookupCacheSize());
+
+    private final int maxSize;
+    private final Long2ObjectLinkedOpenHashMap<Entry> entries = new Long2ObjectLinkedOpenHashMap<>();
+    /// the sorted distinct amounts required of each fluid by the recipes of each map, built on the first use.
+    private final Map<RecipeMap<?>, Map<Fluid, int[]>> fluidThresholds = new IdentityHashMap<>();
+
+    @Getter
+    private long hits;
+    @Getter
+    private long misses;
+
+    private RecipeLookupCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /// @return the cached recipe that matches the inputs, or `null` if absent.
+    public synchronized @Nullable GTRecipe get(long key, RecipeMap<?> recipeMap, int tier, FluidStack[] fluids, ItemStack[] items) {
+        Entry entry = entries.getAndMoveToLast(key);
+        if (entry != null && entry.recipeMap == recipeMap && entry.tier == tier
+            && entry.recipe.mEnabled && entry.recipe.isRecipeInputEqual(false, fluids, items)) {
+            hits++;
+            return entry.recipe;
+        }
+        misses++;
+        return null;
+    }
+
+    public synchronized void put(long key, RecipeMap<?> recipeMap, int tier, GTRecipe recipe) {
+        entries.putAndMoveToLast(key, new Entry(recipeMap, tier, recipe));
+        while (entries.size() > maxSize) {
+            entries.removeFirst();
+        }
+    }
+
+    public synchronized void invalidate() {
+        entries.clear();
+        fluidThresholds.clear();
+    }
+
+    public synchronized void resetCounters() {
+        hits = 0;
+        misses = 0;
+    }
+
+    /// Compute the key of the lookup from the kinds of the inputs and their amount thresholds.
+    ///
+    /// The slots are combined order-independently, so the same inputs in different slots share the key.
+    /// The amounts of the same fluid in different slots are summed before bucketed, as GregTech matches them by the sum.
+    public synchronized long computeKey(RecipeMap<?> recipeMap, int tier, FluidStack[] fluids, ItemStack[] items, @Nullable ItemStack specialSlot) {
+        Map<Fluid, int[]> thresholds = fluidThresholds.computeIfAbsent(recipeMap, RecipeLookupCache::buildFluidThresholds);
+        long fluidSum = 0;
+        for (int i = 0; i < fluids.length; i++) {
+            FluidStack fluid = fluids[i];
+            if (fluid == null || fluid.amount <= 0 || isCountedBefore(fluids, i)) continue;
+            long amount = fluid.amount;
+            for (int j = i + 1; j < fluids.length; j++) {
+                if (isSameKind(fluid, fluids[j])) amount += fluids[j].amount;
+            }
+            long h = mix(System.identityHashCode(fluid.getFluid()), fluid.tag == null ? 0 : fluid.tag.hashCode());
+            fluidSum += mix(h, bucket(thresholds.get(fluid.getFluid()), amount));
+        }
+        long itemSum = 0;
+        for (ItemStack item : items) {
+            if (item == null) continue;
+            itemSum += mix(itemHash(item), item.stackSize);
+        }
+        long h = mix(System.identityHashCode(recipeMap), tier);
+        h = mix(h, fluidSum);
+        h = mix(h, itemSum);
+        return mix(h, specialSlot == null ? 0 : itemHash(specialSlot));
+    }
+
+    private static Map<Fluid, int[]> buildFluidThresholds(RecipeMap<?> recipeMap) {
+        Map<Fluid, IntSortedSet> amounts = new IdentityHashMap<>();
+        for (GTRecipe recipe : recipeMap.getAllRecipes()) {
+            if (recipe.mFluidInputs == null) continue;
+            for (FluidStack fluid : recipe.mFluidInputs) {
+                if (fluid == null || fluid.getFluid() == null) continue;
+                amounts.computeIfAbsent(fluid.getFluid(), k -> new IntRBTreeSet()).add(fluid.amount);
+            }
+        }
+        Map<Fluid, int[]> thresholds = new IdentityHashMap<>(amounts.size());
+        amounts.forEach((fluid, set) -> thresholds.put(fluid, set.toIntArray()));
+        return thresholds;
+    }
+
+    /// @return the count of the thresholds not greater than the amount.
+    private static int bucket(int @Nullable [] thresholds, long amount) {
+        if (thresholds == null) return 0;
+        int index = Arrays.binarySearch(thresholds, (int) Math.min(amount, Integer.MAX_VALUE));
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private static boolean isCountedBefore(FluidStack[] fluids, int index) {
+        for (int i = 0; i < index; i++) {
+            if (fluids[i] != null && fluids[i].amount > 0 && isSameKind(fluids[i], fluids[index])) return true;
+        }
+        return false;
+    }
+
+    private static boolean isSameKind(FluidStack fluid, @Nullable FluidStack other) {
+        return other != null && other.amount > 0 && other.getFluid() == fluid.getFluid() && Objects.equals(other.tag, fluid.tag);
+    }
+
+    private static long itemHash(ItemStack item) {
+        long h = mix(System.identityHashCode(item.getItem()), item.getItemDamage());
+        return mix(h, item.stackTagCompound == null ? 0 : item.stackTagCompound.hashCode());
+    }
+
+    private static long mix(long h, long v) {
+        h = (h ^ v) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private static final class Entry {
+        private final RecipeMap<?> recipeMap;
+        private final int tier;
+        private final GTRecipe recipe;
+
+        private Entry(RecipeMap<?> recipeMap, int tier, GTRecipe recipe) {
+            this.recipeMap = recipeMap;
+            this.tier = tier;
+            this.recipe = recipe;
+        }
+    }
+}
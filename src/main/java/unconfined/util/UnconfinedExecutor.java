@@ -0,0 +1,237 @@
+package unconfined.util;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.jspecify.annotations.Nullable;
+import unconfined.mod.UnconfinedConfig;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/// An execution service to move work off the server thread, with a completion queue drained on the server thread.
+///
+/// The tasks in flight are bounded by the thread count plus the queue capacity, and a task beyond them is rejected,
+/// so the caller can fall back to doing the work itself, or drop it, instead of blocking the server thread.
+/// The tasks are run on a fixed count of worker threads, which are virtual threads if preferred and the runtime supports them, otherwise daemon platform threads.
+/// Either way, the thread count bounds the parallelism, so the CPU-bound tasks can't take every core from the server thread,
+/// and the workers are reused, so the thread-local scratches of the tasks are kept across the tasks.
+///
+/// ```java
+/// boolean submitted = UnconfinedExecutor.shared().trySubmit(
+///     () -> heavyPureComputation(snapshot),         // on a worker
+///     (result, error) -> applyToTheWorld(result)     // on the server thread, at the start of the next server tick
+/// );
+/// if (!submitted) {
+///     applyToTheWorld(heavyPureComputation(snapshot));
+/// }
+/// ```
+///
+/// The tasks must not touch the world, or anything not thread-safe.
+/// The callbacks are run by [#drainCompletions()], which is called by the mod at the start of every server tick.
+@Log4j2
+public final class UnconfinedExecutor {
+
+    private final String name;
+    private final ExecutorService workers;
+    /// the maximum count of the tasks submitted but not finished.
+    private final int maxInFlight;
+    private final ConcurrentLinkedQueue<Runnable> completions = new ConcurrentLinkedQueue<>();
+    @Getter
+    private final boolean virtualThreads;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong rejectedTasks = new AtomicLong();
+    private final AtomicInteger pendingCompletions = new AtomicInteger();
+    private final AtomicLong completedTasks = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong totalRunNanos = new AtomicLong();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+
+    public UnconfinedExecutor(String name, int threads, int queueCapacity, boolean preferVirtualThreads) {
+        this.name = name;
+        this.maxInFlight = (int) Math.min(Integer.MAX_VALUE, (long) threads + queueCapacity);
+        ThreadFactory virtualThreadFactory = preferVirtualThreads ? createVirtualThreadFactory(name) : null;
+        this.virtualThreads = virtualThreadFactory != null;
+        // the queue is bounded by the in-flight count already.
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            virtualThreadFactory != null ? virtualThreadFactory : createPlatformThreadFactory(name)
+        );
+        executor.allowCoreThreadTimeOut(true);
+        this.workers = executor;
+    }
+
+    /// @return the executor shared across the library, configured by [UnconfinedConfig].
+    public static UnconfinedExecutor shared() {
+        return Shared.INSTANCE;
+    }
+
+    /// Run the task on a worker, unless there are too many tasks in flight.
+    ///
+    /// @return the future completed on the worker thread, or `null` if the task is rejected, and the caller should do the work itself or drop it.
+    public <T> @Nullable CompletableFuture<T> trySubmit(Supplier<T> task) {
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            rejectedTasks.incrementAndGet();
+            return null;
+        }
+        long submitted = System.nanoTime();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            workers.execute(() -> {
+                long started = System.nanoTime();
+                running.incrementAndGet();
+                try {
+                    future.complete(task.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    running.decrementAndGet();
+                    inFlight.decrementAndGet();
+                    record(submitted, started, System.nanoTime());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            rejectedTasks.incrementAndGet();
+            return null;
+        }
+        return future;
+    }
+
+    /// Run the task on a worker, and the callback on the server thread once it's done, unless there are too many tasks in flight.
+    ///
+    /// @param callback accepts the result, or the error if the task has thrown.
+    /// @return `false` if the task is rejected, and the callback will never be called.
+    public <T> boolean trySubmit(Supplier<T> task, BiConsumer<@Nullable T, @Nullable Throwable> callback) {
+        CompletableFuture<T> future = trySubmit(task);
+        if (future == null) return false;
+        future.whenComplete((result, error) -> runOnServerThread(() -> callback.accept(result, error)));
+        return true;
+    }
+
+    /// Queue the action to run on the server thread, at the next [#drainCompletions()].
+    public void runOnServerThread(Runnable action) {
+        pendingCompletions.incrementAndGet();
+        completions.add(action);
+    }
+
+    /// Run the queued actions on the current thread, which should be the server thread.
+    ///
+    /// Only the actions queued before this call are run, the ones queued by them are left to the next call.
+    public void drainCompletions() {
+        for (int count = pendingCompletions.get(); count > 0; count--) {
+            Runnable action = completions.poll();
+            if (action == null) break;
+            pendingCompletions.decrementAndGet();
+            try {
+                action.run();
+            } catch (Throwable t) {
+                log.error("Exception in completion of {}", name, t);
+            }
+        }
+    }
+
+    private void record(long submitted, long started, long finished) {
+        completedTasks.incrementAndGet();
+        totalWaitNanos.addAndGet(started - submitted);
+        long run = finished - started;
+        totalRunNanos.addAndGet(run);
+        maxRunNanos.accumulateAndGet(run, Math::max);
+    }
+
+    /// @return the snapshot of the metrics.
+    public Metrics getMetrics() {
+        long completed = completedTasks.get();
+        int running = this.running.get();
+        return new Metrics(
+            Math.max(0, inFlight.get() - running),
+            running,
+            pendingCompletions.get(),
+            completed,
+            rejectedTasks.get(),
+            completed == 0 ? 0 : totalWaitNanos.get() / completed,
+            completed == 0 ? 0 : totalRunNanos.get() / completed,
+            maxRunNanos.get()
+        );
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Metrics {
+        /// the count of tasks waiting for a worker.
+        private final int queueDepth;
+        /// the count of tasks running on the workers.
+        private final int running;
+        /// the count of callbacks waiting for the server thread.
+        private final int completionQueueDepth;
+        private final long completedTasks;
+        /// the count of tasks rejected as too many were in flight.
+        private final long rejectedTasks;
+        /// the average time from submission to start.
+        private final long averageWaitNanos;
+        private final long averageRunNanos;
+        private final long maxRunNanos;
+    }
+
+    private static ThreadFactory createPlatformThreadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, name + " #" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /// Create the factory of the virtual threads by `Thread.ofVirtual().name(name + " #", 1).factory()` in reflection, as the mod is compiled against Java 8.
+    ///
+    /// @return the factory, or `null` if the runtime doesn't support virtual threads.
+    private static @Nullable ThreadFactory createVirtualThreadFactory(String name) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name + " #", 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static final class Shared {
+        private static final UnconfinedExecutor INSTANCE = create();
+
+        private static UnconfinedExecutor create() {
+            UnconfinedConfig config = UnconfinedConfig.INSTANCE;
+            int threads = config.getExecutorThreads();
+            if (threads <= 0) threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            UnconfinedExecutor executor = new UnconfinedExecutor(
+                "Unconfined Worker",
+                threads,
+                config.getExecutorQueueCapacity(),
+                config.isExecutorVirtualThreadsPreferred()
+            );
+            if (executor.isVirtualThreads()) {
+                log.info("Created shared executor with {} virtual threads", threads);
+            } else {
+                log.info("Created shared executor with {} platform threads", threads);
+            }
+            return executor;
+        }
+    }
+}
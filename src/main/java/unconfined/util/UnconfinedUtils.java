@@ -6,15 +6,27 @@ import lombok.Getter;
 import net.minecraft.client.resources.I18n;
 import net.minecraft.command.ICommandSender;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagString;
 import net.minecraft.util.IChatComponent;
+import net.minecraftforge.common.util.Constants;
+import net.minecraftforge.fluids.Fluid;
+import net.minecraftforge.fluids.FluidRegistry;
 import net.minecraftforge.fluids.FluidStack;
 import org.jspecify.annotations.NullUnmarked;
 import org.jspecify.annotations.Nullable;
+import unconfined.util.fluidtank.FluidTagInterner;
 import unconfined.util.tier.Tier;
 import unconfined.util.tier.Voltage;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
 
 /// Minecraft-related utils
 public final class UnconfinedUtils {
@@ -75,31 +87,181 @@ public final class UnconfinedUtils {
         return new EnumMap<>(Voltage.class);
     }
 
+    /// The persistence of fluid slots in NBT.
+    ///
+    /// The current layout is detected by the int array under `s`, which the legacy numeric keys never use:
+    ///
+    /// - `n`: the fluid name if all the occupied slots share it, otherwise the list of the distinct names
+    /// - `s`: an int array of `(slot, amount)` pairs with a single name, or `(slot, name index, amount)` triples with a list
+    /// - `t`: the compound of the fluid tags keyed by the slot index, only written if any fluid has a tag
+    ///
+    /// An empty tank is saved as an empty compound, which loads the same in both layouts.
+    /// The legacy format, a child compound per slot keyed by the slot index, is still loaded, and is migrated on the next save.
     public static final class Persist {
+        private static final String NAMES_KEY = "n";
+        private static final String SLOTS_KEY = "s";
+        private static final String TAGS_KEY = "t";
+
         public static @Nullable FluidStack[] loadArray(NBTTagCompound tag, int arraySize) {
             return Utils.make(new FluidStack[arraySize], array -> loadToArray(tag, array));
         }
 
         public static void loadToArray(NBTTagCompound tag, @Nullable FluidStack[] dest) {
-            for (int i = 0; i < dest.length; i++) {
+            load(tag, dest.length, (fluid, slot) -> dest[slot] = fluid);
+        }
+
+        public static NBTTagCompound saveArray(@Nullable FluidStack[] fluidStacks) {
+            return save(fluidStacks.length, slot -> fluidStacks[slot]);
+        }
+
+        /// Load the slots saved in either layout, the absent ones are left untouched.
+        ///
+        /// @param size   the count of the slots, the saved ones beyond it are skipped.
+        /// @param setter accepts the loaded fluid and its slot index.
+        public static void load(NBTTagCompound tag, int size, ObjIntConsumer<@Nullable FluidStack> setter) {
+            if (!isCompact(tag)) {
+                loadLegacy(tag, size, setter);
+                return;
+            }
+            int[] slots = tag.getIntArray(SLOTS_KEY);
+            int stride = stride(tag);
+            for (int i = 0; i + stride - 1 < slots.length; i += stride) {
+                int slot = slots[i];
+                if (slot < 0 || slot >= size) continue;
+                setter.accept(decodeCompact(tag, slots, i, stride), slot);
+            }
+        }
+
+        /// Load only the given slot saved in either layout, the other slots are not decoded.
+        ///
+        /// @return `true` if the slot is saved, and the setter is called.
+        public static boolean loadSlot(NBTTagCompound tag, int slot, ObjIntConsumer<@Nullable FluidStack> setter) {
+            if (!isCompact(tag)) {
+                String key = String.valueOf(slot);
+                if (!tag.hasKey(key)) return false;
+                setter.accept(FluidTagInterner.intern(FluidStack.loadFluidStackFromNBT(tag.getCompoundTag(key))), slot);
+                return true;
+            }
+            int[] slots = tag.getIntArray(SLOTS_KEY);
+            int stride = stride(tag);
+            for (int i = 0; i + stride - 1 < slots.length; i += stride) {
+                if (slots[i] == slot) {
+                    setter.accept(decodeCompact(tag, slots, i, stride), slot);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean isCompact(NBTTagCompound tag) {
+            return tag.hasKey(SLOTS_KEY, Constants.NBT.TAG_INT_ARRAY);
+        }
+
+        /// @return 2 for the `(slot, amount)` pairs with a single name, 3 for the `(slot, name index, amount)` triples.
+        private static int stride(NBTTagCompound tag) {
+            return tag.hasKey(NAMES_KEY, Constants.NBT.TAG_STRING) ? 2 : 3;
+        }
+
+        /// Decode the fluid of the entry starting at the index of the slots array.
+        private static @Nullable FluidStack decodeCompact(NBTTagCompound tag, int[] slots, int index, int stride) {
+            String name = stride == 2
+                ? tag.getString(NAMES_KEY)
+                : tag.getTagList(NAMES_KEY, Constants.NBT.TAG_STRING).getStringTagAt(slots[index + 1]);
+            Fluid fluid = FluidRegistry.getFluid(name);
+            // the fluid is removed, same as FluidStack#loadFluidStackFromNBT
+            if (fluid == null) return null;
+            FluidStack stack = new FluidStack(fluid, slots[index + stride - 1]);
+            String tagKey = String.valueOf(slots[index]);
+            NBTTagCompound tags = tag.getCompoundTag(TAGS_KEY);
+            if (tags.hasKey(tagKey)) {
+                // copied, as the saved data may be kept and saved again, see UnconfinedFluidTank#loadDataLazily.
+                stack.tag = FluidTagInterner.intern((NBTTagCompound) tags.getCompoundTag(tagKey).copy());
+            }
+            return stack;
+        }
+
+        private static void loadLegacy(NBTTagCompound tag, int size, ObjIntConsumer<@Nullable FluidStack> setter) {
+            for (int i = 0; i < size; i++) {
                 String key = String.valueOf(i);
                 if (tag.hasKey(key)) {
-                    dest[i] = FluidStack.loadFluidStackFromNBT(tag.getCompoundTag(key));
+                    setter.accept(FluidTagInterner.intern(FluidStack.loadFluidStackFromNBT(tag.getCompoundTag(key))), i);
                 }
             }
         }
 
-        public static NBTTagCompound saveArray(@Nullable FluidStack[] fluidStacks) {
-            return Utils.make(
-                new NBTTagCompound(), tag -> {
-                    for (int i = 0; i < fluidStacks.length; i++) {
-                        FluidStack fluid = fluidStacks[i];
-                        if (fluid != null) {
-                            tag.setTag(String.valueOf(i), fluid.writeToNBT(new NBTTagCompound()));
-                        }
-                    }
+        /// @return the slots saved in either layout, without decoding them.
+        public static BitSet savedSlots(NBTTagCompound tag, int size) {
+            BitSet saved = new BitSet(size);
+            if (!isCompact(tag)) {
+                for (int i = 0; i < size; i++) {
+                    if (tag.hasKey(String.valueOf(i))) saved.set(i);
                 }
-            );
+            } else {
+                int[] slots = tag.getIntArray(SLOTS_KEY);
+                int stride = stride(tag);
+                for (int i = 0; i + stride - 1 < slots.length; i += stride) {
+                    if (slots[i] >= 0 && slots[i] < size) saved.set(slots[i]);
+                }
+            }
+            return saved;
+        }
+
+        /// @return `true` if the saved data in either layout contains no fluid.
+        public static boolean isEmpty(NBTTagCompound tag) {
+            if (!isCompact(tag)) {
+                return tag.hasNoTags();
+            }
+            return tag.getIntArray(SLOTS_KEY).length == 0;
+        }
+
+        /// Save the slots in the compact layout, or an empty compound if all the slots are empty.
+        ///
+        /// @param getter gets the fluid in the slot index.
+        public static NBTTagCompound save(int size, IntFunction<@Nullable FluidStack> getter) {
+            NBTTagCompound tag = new NBTTagCompound();
+            List<String> names = new ArrayList<>(size);
+            int[] slots = new int[size * 3];
+            int length = 0;
+            NBTTagCompound tags = null;
+            for (int i = 0; i < size; i++) {
+                FluidStack fluid = getter.apply(i);
+                if (fluid == null || fluid.getFluid() == null) continue;
+                String name = FluidRegistry.getFluidName(fluid);
+                int nameIndex = names.indexOf(name);
+                if (nameIndex < 0) {
+                    nameIndex = names.size();
+                    names.add(name);
+                }
+                slots[length++] = i;
+                slots[length++] = nameIndex;
+                slots[length++] = fluid.amount;
+                if (fluid.tag != null) {
+                    if (tags == null) tags = new NBTTagCompound();
+                    tags.setTag(String.valueOf(i), fluid.tag.copy());
+                }
+            }
+            if (length == 0) return tag;
+            if (names.size() == 1) {
+                // drop the name indices, all of them are 0.
+                int pairs = 0;
+                for (int i = 0; i < length; i += 3) {
+                    slots[pairs++] = slots[i];
+                    slots[pairs++] = slots[i + 2];
+                }
+                tag.setString(NAMES_KEY, names.get(0));
+                tag.setIntArray(SLOTS_KEY, Arrays.copyOf(slots, pairs));
+            } else {
+                NBTTagList nameList = new NBTTagList();
+                for (String name : names) {
+                    nameList.appendTag(new NBTTagString(name));
+                }
+                tag.setTag(NAMES_KEY, nameList);
+                tag.setIntArray(SLOTS_KEY, length == slots.length ? slots : Arrays.copyOf(slots, length));
+            }
+            if (tags != null) {
+                tag.setTag(TAGS_KEY, tags);
+            }
+            return tag;
         }
     }
 }
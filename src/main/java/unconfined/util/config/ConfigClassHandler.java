@@ -9,32 +9,92 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static unconfined.util.Utils.runIfFalse;
 
 @RequiredArgsConstructor
 @Log4j2
 public class ConfigClassHandler {
+
+    /// The single thread to save the configurations, which quits when idle.
+    ///
+    /// It's not a daemon, so a pending save is finished before the game exits.
+    private static final ThreadPoolExecutor SAVER = new ThreadPoolExecutor(
+        0,
+        1,
+        5,
+        TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(),
+        r -> new Thread(r, "Unconfined Config Saver")
+    );
+
     private final ConfigBearer configBearer;
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
 
     /// The configuration class that contains both [Configuration] instance and the config value getting methods.
     public interface ConfigBearer {
         Configuration getConfig();
+
+        /// Resolve all the config values into the fields, so that the getters are plain field reads.
+        ///
+        /// The default values and comments are registered to the [Configuration] by the resolving, and saved after.
+        default void resolve() {
+        }
     }
 
     /// Methods in [ConfigBearer] annotated with [ConfigValue] will be treated as a config value getter.
     /// It should be 0-argument, non-static methods.
+    ///
+    /// Prefer resolving the values into fields in [ConfigBearer#resolve()], as the annotated getters are invoked by reflection,
+    /// and they look up the [Configuration] on every call.
     @Target(ElementType.METHOD)
     @Retention(RetentionPolicy.RUNTIME)
     public @interface ConfigValue {
     }
 
+    /// Resolve the config values, and save the configuration asynchronously if anything is added or changed.
     public void loadAll() {
-        Class<?> clazz = configBearer.getClass();
-        Arrays.stream(clazz.getDeclaredMethods())
+        Configuration config = configBearer.getConfig();
+        synchronized (config) {
+            configBearer.resolve();
+            invokeConfigValueGetters();
+        }
+        if (config.hasChanged()) {
+            save();
+        }
+    }
+
+    /// Save the configuration on the saver thread.
+    ///
+    /// The requests before the saving starts are coalesced into one save.
+    public void save() {
+        if (!saveScheduled.compareAndSet(false, true)) return;
+        SAVER.execute(() -> {
+            saveScheduled.set(false);
+            Configuration config = configBearer.getConfig();
+            synchronized (config) {
+                try {
+                    config.save();
+                } catch (Exception e) {
+                    log.warn("Failed to save configuration {}", config.getConfigFile(), e);
+                }
+            }
+        });
+    }
+
+    private void invokeConfigValueGetters() {
+        Method[] getters = Arrays.stream(configBearer.getClass().getDeclaredMethods())
             .filter(it -> it.isAnnotationPresent(ConfigValue.class))
+            .toArray(Method[]::new);
+        if (getters.length == 0) return;
+        Arrays.stream(getters)
             .filter(it -> runIfFalse(
                 !Modifier.isStatic(it.getModifiers()),
                 () -> log.warn("Invalid config value getter method {}: non-static required.", it.getName())
@@ -54,6 +114,5 @@ public class ConfigClassHandler {
                     log.warn("Failed to invoke config value getter method {}", it.getName(), e);
                 }
             });
-        configBearer.getConfig().save();
     }
 }
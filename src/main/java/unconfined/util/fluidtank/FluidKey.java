@@ -0,0 +1,42 @@
+package unconfined.util.fluidtank;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraftforge.fluids.Fluid;
+import net.minecraftforge.fluids.FluidStack;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Objects;
+
+/// The identity of a [FluidStack] without the amount, used as the key of fluid indices.
+///
+/// Two keys are equal when [FluidStack#isFluidEqual(FluidStack)] would be `true` for their stacks.
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class FluidKey {
+
+    private final Fluid fluid;
+    private final @Nullable NBTTagCompound tag;
+
+    public static FluidKey of(FluidStack stack) {
+        return new FluidKey(stack.getFluid(), stack.tag);
+    }
+
+    public static FluidKey of(Fluid fluid, @Nullable NBTTagCompound tag) {
+        return new FluidKey(fluid, tag);
+    }
+
+    /// @return `true` if the stack is the fluid of this key, ignoring the amount.
+    public boolean matches(@Nullable FluidStack stack) {
+        return stack != null && stack.getFluid() == fluid && Objects.equals(stack.tag, tag);
+    }
+
+    @Override
+    public String toString() {
+        return tag == null ? fluid.getName() : fluid.getName() + tag;
+    }
+}
@@ -0,0 +1,108 @@
+package unconfined.util.fluidtank;
+
+import net.minecraftforge.fluids.FluidStack;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/// The fluid requirement of a recipe compiled into a vector of distinct [FluidKey]s and their amounts.
+///
+/// Matching a tank against it is a single pass over the slots per key, instead of comparing every input with every slot.
+public final class FluidRequirementVector {
+
+    public static final FluidRequirementVector EMPTY = new FluidRequirementVector(new FluidKey[0], new int[0]);
+
+    private final FluidKey[] keys;
+    private final int[] amounts;
+
+    private FluidRequirementVector(FluidKey[] keys, int[] amounts) {
+        this.keys = keys;
+        this.amounts = amounts;
+    }
+
+    /// Compile the fluids into a vector, the amounts of the same fluid are merged.
+    public static FluidRequirementVector of(@Nullable FluidStack @Nullable [] fluids) {
+        if (fluids == null || fluids.length == 0) return EMPTY;
+        List<FluidKey> keys = new ArrayList<>(fluids.length);
+        int[] amounts = new int[fluids.length];
+        for (FluidStack fluid : fluids) {
+            if (fluid == null || fluid.getFluid() == null) continue;
+            FluidKey key = FluidKey.of(fluid);
+            int index = keys.indexOf(key);
+            if (index < 0) {
+                index = keys.size();
+                keys.add(key);
+            }
+            amounts[index] += fluid.amount;
+        }
+        if (keys.isEmpty()) return EMPTY;
+        int[] trimmed = new int[keys.size()];
+        System.arraycopy(amounts, 0, trimmed, 0, trimmed.length);
+        return new FluidRequirementVector(keys.toArray(new FluidKey[0]), trimmed);
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    /// @return the maximum times the tank can afford the requirement, or [Integer#MAX_VALUE] if nothing is required.
+    public int maxParallel(IUnconfinedFluidTank tank) {
+        int result = Integer.MAX_VALUE;
+        for (int i = 0; i < keys.length; i++) {
+            long available = countAvailable(tank, keys[i]);
+            if (amounts[i] <= 0) {
+                // a fluid without amount is only required to be present.
+                if (available <= 0) return 0;
+                continue;
+            }
+            result = (int) Math.min(result, available / amounts[i]);
+            if (result == 0) return 0;
+        }
+        return result;
+    }
+
+    /// Drain the requirement of the given times from the tank.
+    ///
+    /// @return `false` if the tank can't afford it, and nothing is drained.
+    public boolean consume(IUnconfinedFluidTank tank, int times) {
+        if (maxParallel(tank) < times) return false;
+        for (int i = 0; i < keys.length; i++) {
+            long remaining = (long) amounts[i] * times;
+            for (int slot = 0; slot < tank.getSlotCount() && remaining > 0; slot++) {
+                FluidStack stack = tank.get(slot);
+                if (!keys[i].matches(stack)) continue;
+                int drained = (int) Math.min(stack.amount, remaining);
+                stack.amount -= drained;
+                remaining -= drained;
+                // clean-up
+                if (stack.amount <= 0) tank.set(slot, null);
+            }
+        }
+        tank.markChanged();
+        return true;
+    }
+
+    private static long countAvailable(IUnconfinedFluidTank tank, FluidKey key) {
+        long available = 0;
+        for (int slot = 0; slot < tank.getSlotCount(); slot++) {
+            FluidStack stack = tank.get(slot);
+            if (key.matches(stack)) available += stack.amount;
+        }
+        return available;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder("FluidRequirementVector{");
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) s.append(", ");
+            s.append(amounts[i]).append("x ").append(keys[i]);
+        }
+        return s.append("}").toString();
+    }
+}
@@ -0,0 +1,44 @@
+package unconfined.util.fluidtank;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraftforge.fluids.FluidStack;
+import org.jspecify.annotations.Nullable;
+
+/// Shares the equal tags of the fluid stacks loaded or filled into the tanks, as one canonical instance.
+///
+/// The canonical tags are held weakly, and are shared by any number of stacks, so they must never be modified in place.
+/// The tanks never modify the tags, and the stacks handed out to the code outside the tanks carry private copies of the tags:
+/// the drained stacks are copies already, and the live stacks returned by `IFluidTank#getFluid()` and [IUnconfinedFluidTank#getFluidTank(int)] are copied by [#copyIfTagged(FluidStack)].
+///
+/// As the equal tags are the same instance, the tag comparison of [FluidStack#isFluidEqual(FluidStack)] returns at the identity check.
+public final class FluidTagInterner {
+
+    private static final Interner<NBTTagCompound> INTERNER = Interners.newWeakInterner();
+
+    private FluidTagInterner() {
+    }
+
+    /// @return the canonical instance equal to the tag.
+    public static @Nullable NBTTagCompound intern(@Nullable NBTTagCompound tag) {
+        return tag == null ? null : INTERNER.intern(tag);
+    }
+
+    /// Replace the tag of the stack with the canonical instance.
+    ///
+    /// @return the given stack.
+    public static @Nullable FluidStack intern(@Nullable FluidStack stack) {
+        if (stack != null && stack.tag != null) {
+            stack.tag = INTERNER.intern(stack.tag);
+        }
+        return stack;
+    }
+
+    /// Get the stack to hand out to the code outside the tanks, which may modify its tag.
+    ///
+    /// @return the given stack if it has no tag, or a copy with a private tag.
+    public static @Nullable FluidStack copyIfTagged(@Nullable FluidStack stack) {
+        return stack == null || stack.tag == null ? stack : stack.copy();
+    }
+}
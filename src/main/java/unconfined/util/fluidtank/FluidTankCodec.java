@@ -0,0 +1,95 @@
+package unconfined.util.fluidtank;
+
+import cpw.mods.fml.common.network.ByteBufUtils;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraftforge.fluids.Fluid;
+import net.minecraftforge.fluids.FluidRegistry;
+import net.minecraftforge.fluids.FluidStack;
+import org.jspecify.annotations.Nullable;
+
+/// A compact binary codec of the contents of [IUnconfinedFluidTank], written to [ByteBuf] directly.
+///
+/// The layout is:
+///
+/// - varint: the slot count
+/// - bytes: the occupancy bitmask, one bit per slot, `(count + 7) / 8` bytes
+/// - for each occupied slot:
+///   - varint: the fluid registry id shifted left by one, with the lowest bit set if a tag follows
+///   - varint: the amount
+///   - NBT: the tag, only if present
+///
+/// The fluid registry ids are only stable within a game session, so this is for the network or in-memory use, not for the persistence, see [IUnconfinedFluidTank#saveData()] for that.
+public final class FluidTankCodec {
+
+    /// The maximum bytes of a varint, same as [ByteBufUtils#readVarInt(ByteBuf, int)] accepts.
+    private static final int VARINT_MAX_SIZE = 5;
+
+    private FluidTankCodec() {
+    }
+
+    /// Write the contents of the tank into the buffer.
+    public static void write(IUnconfinedFluidTank tank, ByteBuf buf) {
+        int slotCount = tank.getSlotCount();
+        ByteBufUtils.writeVarInt(buf, slotCount, VARINT_MAX_SIZE);
+        for (int base = 0; base < slotCount; base += 8) {
+            int mask = 0;
+            for (int bit = 0; bit < 8 && base + bit < slotCount; bit++) {
+                if (isOccupied(tank.get(base + bit))) {
+                    mask |= 1 << bit;
+                }
+            }
+            buf.writeByte(mask);
+        }
+        for (int i = 0; i < slotCount; i++) {
+            FluidStack fluid = tank.get(i);
+            if (isOccupied(fluid)) {
+                writeFluid(buf, fluid);
+            }
+        }
+    }
+
+    /// Read the contents from the buffer into the tank, replacing all its slots.
+    ///
+    /// The slots beyond the written slot count are emptied, and the written slots beyond the slot count of the tank are skipped.
+    /// A fluid not registered in this session is read as empty.
+    public static void read(IUnconfinedFluidTank tank, ByteBuf buf) {
+        int writtenCount = ByteBufUtils.readVarInt(buf, VARINT_MAX_SIZE);
+        byte[] masks = new byte[(writtenCount + 7) / 8];
+        buf.readBytes(masks);
+        int slotCount = tank.getSlotCount();
+        for (int i = 0; i < writtenCount; i++) {
+            FluidStack fluid = (masks[i >> 3] & 1 << (i & 7)) != 0 ? readFluid(buf) : null;
+            if (i < slotCount) {
+                tank.set(i, fluid);
+            }
+        }
+        for (int i = writtenCount; i < slotCount; i++) {
+            tank.set(i, null);
+        }
+    }
+
+    private static void writeFluid(ByteBuf buf, FluidStack fluid) {
+        int id = FluidRegistry.getFluidID(fluid.getFluid());
+        ByteBufUtils.writeVarInt(buf, id << 1 | (fluid.tag != null ? 1 : 0), VARINT_MAX_SIZE);
+        ByteBufUtils.writeVarInt(buf, fluid.amount, VARINT_MAX_SIZE);
+        if (fluid.tag != null) {
+            ByteBufUtils.writeTag(buf, fluid.tag);
+        }
+    }
+
+    private static @Nullable FluidStack readFluid(ByteBuf buf) {
+        int header = ByteBufUtils.readVarInt(buf, VARINT_MAX_SIZE);
+        int amount = ByteBufUtils.readVarInt(buf, VARINT_MAX_SIZE);
+        NBTTagCompound tag = (header & 1) != 0 ? ByteBufUtils.readTag(buf) : null;
+        Fluid fluid = FluidRegistry.getFluid(header >>> 1);
+        if (fluid == null) return null;
+        FluidStack stack = new FluidStack(fluid, amount);
+        stack.tag = FluidTagInterner.intern(tag);
+        return stack;
+    }
+
+    private static boolean isOccupied(@Nullable FluidStack fluid) {
+        return fluid != null && fluid.getFluid() != null;
+    }
+}
@@ -2,6 +2,7 @@ package unconfined.util.fluidtank;
 
 import com.google.common.collect.Iterators;
 import com.gtnewhorizons.modularui.common.fluid.FluidStackTank;
+import io.netty.buffer.ByteBuf;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.fluids.FluidTank;
@@ -38,6 +39,18 @@ public interface IUnconfinedFluidTank extends Iterable<@Nullable FluidStack> {
     /// @implNote slot indices from 0 to slot count must be available.
     int getSlotCount();
 
+    /// The version stamp of the tank, which is increased every time the content is changed through this tank.
+    ///
+    /// Changes made directly to the [FluidStack] instances, or to the fields behind overridden slots, are not tracked.
+    ///
+    /// @return the version stamp.
+    long getVersion();
+
+    /// Increase the version stamp.
+    ///
+    /// Should be called after the content is modified without [#set(int, FluidStack)], like changing the amount of a contained stack.
+    void markChanged();
+
     /**
      * @return the capacity of each tank.
      */
@@ -85,6 +98,22 @@ public interface IUnconfinedFluidTank extends Iterable<@Nullable FluidStack> {
         return Utils.makeArray(new FluidStack[getSlotCount()], this::get);
     }
 
+    /// Fill the contained fluids and empty slots into the given array, reusing it if it has the exact length of the slot count.
+    ///
+    /// @param dest the array to reuse, or `null` to allocate a new one.
+    /// @return the filled array, which is `dest` if reused.
+    @Nullable
+    default FluidStack[] toFluidStackArray(@Nullable FluidStack @Nullable [] dest) {
+        int slotCount = getSlotCount();
+        if (dest == null || dest.length != slotCount) {
+            dest = new FluidStack[slotCount];
+        }
+        for (int i = 0; i < slotCount; i++) {
+            dest[i] = get(i);
+        }
+        return dest;
+    }
+
     @Override
     default Iterator<@Nullable FluidStack> iterator() {
         return Iterators.forArray(toFluidStackArray());
@@ -95,11 +124,39 @@ public interface IUnconfinedFluidTank extends Iterable<@Nullable FluidStack> {
     /// @see #saveData()
     void loadData(NBTTagCompound tag);
 
+    /// Load the saved data from the given tag, but possibly defer the decoding until the slots are accessed.
+    ///
+    /// @see #loadData(NBTTagCompound)
+    default void loadDataLazily(NBTTagCompound tag) {
+        loadData(tag);
+    }
+
+    /// Check if the slot holds a saved fluid not decoded yet, see [#loadDataLazily(NBTTagCompound)].
+    ///
+    /// A pending slot is occupied, and can't be changed without being decoded or overwritten first, so it can be fingerprinted without decoding.
+    default boolean isPending(int slot) {
+        return false;
+    }
+
     /// Save the data into a tag.
     ///
     /// @see #loadData(NBTTagCompound)
     NBTTagCompound saveData();
 
+    /// Write the contents into the buffer in the compact binary form, see [FluidTankCodec].
+    ///
+    /// @see #readFrom(ByteBuf)
+    default void writeTo(ByteBuf buf) {
+        FluidTankCodec.write(this, buf);
+    }
+
+    /// Read the contents from the buffer in the compact binary form, see [FluidTankCodec].
+    ///
+    /// @see #writeTo(ByteBuf)
+    default void readFrom(ByteBuf buf) {
+        FluidTankCodec.read(this, buf);
+    }
+
     /// @return the fluid slot view of the given slot.
     default UnconfinedFluidSlotView getFluidSlotView(int slot) {
         return UnconfinedFluidSlotView.of(() -> get(slot), (value) -> set(slot, value));
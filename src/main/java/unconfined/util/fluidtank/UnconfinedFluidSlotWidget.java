@@ -0,0 +1,92 @@
+package unconfined.util.fluidtank;
+
+import com.gtnewhorizons.modularui.common.internal.network.NetworkUtils;
+import com.gtnewhorizons.modularui.common.widget.FluidSlotWidget;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.IFluidTank;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+
+/// A [FluidSlotWidget] that syncs the amount changes of the fluid as deltas.
+///
+/// The whole [FluidStack] is only synced when the fluid is changed, e.g., filled into an empty slot, or drained out.
+/// Otherwise, only the difference of the amount is sent as a varint, and the changes are coalesced by an interval that adapts to the change rate of the slot:
+/// it's doubled every time the slot has changed again within the interval, up to [#MAX_SYNC_INTERVAL] ticks, and halved once the slot has been quiet for longer.
+///
+/// The client applies the delta to the last synced stack, and passes it to the original sync of [FluidSlotWidget].
+public class UnconfinedFluidSlotWidget extends FluidSlotWidget {
+
+    /// The id of the original sync of the whole stack in [FluidSlotWidget].
+    private static final int SYNC_FLUID = 1;
+    private static final int SYNC_AMOUNT_DELTA = 101;
+
+    private static final int MIN_SYNC_INTERVAL = 1;
+    private static final int MAX_SYNC_INTERVAL = 16;
+
+    private final IFluidTank tank;
+
+    // server side
+    private @Nullable FluidStack syncedFluid;
+    private int ticksSinceSync;
+    private int syncInterval = MIN_SYNC_INTERVAL;
+
+    // client side
+    private @Nullable FluidStack receivedFluid;
+
+    public UnconfinedFluidSlotWidget(IFluidTank tank) {
+        super(tank);
+        this.tank = tank;
+    }
+
+    @Override
+    public void detectAndSendChanges(boolean init) {
+        FluidStack current = tank.getFluid();
+        ticksSinceSync++;
+        if (init || !isSameFluid(current, syncedFluid)) {
+            // the whole stack, by the original sync.
+            super.detectAndSendChanges(true);
+            syncedFluid = current == null ? null : current.copy();
+            ticksSinceSync = 0;
+            syncInterval = MIN_SYNC_INTERVAL;
+            return;
+        }
+        if (current == null || syncedFluid == null || current.amount == syncedFluid.amount || ticksSinceSync < syncInterval) {
+            return;
+        }
+        int delta = current.amount - syncedFluid.amount;
+        syncToClient(SYNC_AMOUNT_DELTA, buf -> buf.writeVarIntToBuffer((delta << 1) ^ (delta >> 31)));
+        syncedFluid.amount = current.amount;
+        // changed right at the interval means the slot is busy.
+        syncInterval = ticksSinceSync == syncInterval
+            ? Math.min(MAX_SYNC_INTERVAL, syncInterval * 2)
+            : Math.max(MIN_SYNC_INTERVAL, syncInterval / 2);
+        ticksSinceSync = 0;
+    }
+
+    @Override
+    public void readOnClient(int id, PacketBuffer buf) throws IOException {
+        if (id == SYNC_FLUID) {
+            int readerIndex = buf.readerIndex();
+            receivedFluid = NetworkUtils.readFluidStack(buf);
+            buf.readerIndex(readerIndex);
+            super.readOnClient(id, buf);
+        } else if (id == SYNC_AMOUNT_DELTA) {
+            int zigzag = buf.readVarIntFromBuffer();
+            if (receivedFluid == null) return;
+            receivedFluid.amount += (zigzag >>> 1) ^ -(zigzag & 1);
+            PacketBuffer full = new PacketBuffer(Unpooled.buffer());
+            NetworkUtils.writeFluidStack(full, receivedFluid);
+            super.readOnClient(SYNC_FLUID, full);
+        } else {
+            super.readOnClient(id, buf);
+        }
+    }
+
+    private static boolean isSameFluid(@Nullable FluidStack a, @Nullable FluidStack b) {
+        if (a == null || b == null) return a == b;
+        return a.isFluidEqual(b);
+    }
+}
@@ -1,5 +1,6 @@
 package unconfined.util.fluidtank;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
@@ -8,11 +9,13 @@ import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.fluids.FluidTank;
 import net.minecraftforge.fluids.FluidTankInfo;
 import org.jspecify.annotations.Nullable;
+import unconfined.api.UnconfinedAPI;
 import unconfined.util.Assertions;
 import unconfined.util.UnconfinedUtils;
 import unconfined.util.Utils;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.function.Consumer;
@@ -25,6 +28,17 @@ public class UnconfinedFluidTank implements IUnconfinedFluidTank {
 
     protected final @Nullable FluidStack[] internalFluids;
     protected final int capacity;
+    protected long version;
+
+    /// The saved data not decoded yet, see [#loadDataLazily(NBTTagCompound)].
+    @Getter(AccessLevel.NONE)
+    protected @Nullable NBTTagCompound pendingData;
+    /// The slots not decoded from [#pendingData] yet.
+    @Getter(AccessLevel.NONE)
+    protected @Nullable BitSet pendingSlots;
+    /// The [#version] when [#pendingData] is loaded, to tell if it can be saved as is.
+    @Getter(AccessLevel.NONE)
+    protected long pendingVersion;
 
     public UnconfinedFluidTank(int slotCount, int capacity) {
         this.internalFluids = new FluidStack[slotCount];
@@ -35,6 +49,7 @@ public class UnconfinedFluidTank implements IUnconfinedFluidTank {
 
     @Override
     public @Nullable FluidStack get(int slot) {
+        if (pendingSlots != null) decodePending(slot);
         FluidStack fluid = internalFluids[slot];
         // clean-up
         if (fluid != null && fluid.amount <= 0) {
@@ -46,6 +61,9 @@ public class UnconfinedFluidTank implements IUnconfinedFluidTank {
 
     @Override
     public void set(int slot, @Nullable FluidStack stack) {
+        // overwritten, no need to decode it.
+        if (pendingSlots != null) pendingSlots.clear(slot);
+        markChanged();
         // clean-up
         if (stack != null && stack.amount <= 0) {
             internalFluids[slot] = null;
@@ -54,11 +72,26 @@ public class UnconfinedFluidTank implements IUnconfinedFluidTank {
         internalFluids[slot] = stack;
     }
 
+    @Override
+    public @Nullable FluidStack[] getInternalFluids() {
+        if (pendingSlots != null) {
+            for (int slot = pendingSlots.nextSetBit(0); slot >= 0; slot = pendingSlots.nextSetBit(slot + 1)) {
+                decodePending(slot);
+            }
+        }
+        return internalFluids;
+    }
+
     @Override
     public int getSlotCount() {
         return internalFluids.length;
     }
 
+    @Override
+    public void markChanged() {
+        version++;
+    }
+
     // endregion
 
     // region fill
@@ -84,6 +117,7 @@ public class UnconfinedFluidTank implements IUnconfinedFluidTank {
                 if (execute) {
                     resource.amount -= amountToFill;
                     slotFluid.amount += amountToFill;
+                    markChanged();
                 }
                 return amountToFill;
             }
@@ -105,7 +139,7 @@ public class UnconfinedFluidTank implements IUnconfinedFluidTank {
                 int amountToFill = Math.min(getCapacity(), resource.amount);
                 if (execute) {
                     resource.amount -= amountToFill;
-                    set(slot, UnconfinedUtils.copy(resource, amountToFill));
+                    set(slot, FluidTagInterner.intern(UnconfinedUtils.copy(resource, amountToFill)));
                 }
                 return amountToFill;
             }
@@ -125,6 +159,7 @@ public class UnconfinedFluidTank implements IUnconfinedFluidTank {
                 int amountToDrain = Math.min(slotFluid.amount, amount);
                 if (execute) {
                     slotFluid.amount -= amountToDrain;
+                    markChanged();
                     // clean-up
                     if (slotFluid.amount <= 0) set(slot, null);
                 }
@@ -143,6 +178,7 @@ public class UnconfinedFluidTank implements IUnconfinedFluidTank {
                 int amountToDrain = Math.min(slotFluid.amount, amount);
                 if (execute) {
                     slotFluid.amount -= amountToDrain;
+                    markChanged();
                     // clean-up
                     if (slotFluid.amount <= 0) set(slot, null);
                 }
@@ -168,7 +204,7 @@ public class UnconfinedFluidTank implements IUnconfinedFluidTank {
 
     @Override
     public FluidTank getFluidTank(int slot) {
-        return new FluidTank(get(slot), getCapacity());
+        return new FluidTank(FluidTagInterner.copyIfTagged(get(slot)), getCapacity());
     }
 
     @Override
@@ -178,25 +214,75 @@ public class UnconfinedFluidTank implements IUnconfinedFluidTank {
 
     @Override
     public void loadData(NBTTagCompound tag) {
-        for (int i = 0; i < getSlotCount(); i++) {
-            if (tag.hasKey(String.valueOf(i))) {
-                set(i, FluidStack.loadFluidStackFromNBT(tag.getCompoundTag(String.valueOf(i))));
+        pendingData = null;
+        pendingSlots = null;
+        UnconfinedUtils.Persist.load(tag, getSlotCount(), (fluid, slot) -> set(slot, fluid));
+    }
+
+    /// Keep the tag, and decode each saved slot on its first access instead.
+    ///
+    /// The tag is kept and copied by [#saveData()] if the tank is not changed since, so it must not be modified by others.
+    @Override
+    public void loadDataLazily(NBTTagCompound tag) {
+        pendingData = tag;
+        pendingSlots = UnconfinedUtils.Persist.savedSlots(tag, getSlotCount());
+        pendingVersion = version;
+    }
+
+    @Override
+    public boolean isPending(int slot) {
+        return pendingSlots != null && pendingSlots.get(slot);
+    }
+
+    /// Decode the slot from [#pendingData], if not decoded yet.
+    protected void decodePending(int slot) {
+        if (pendingData == null || pendingSlots == null || !pendingSlots.get(slot)) return;
+        pendingSlots.clear(slot);
+        UnconfinedUtils.Persist.loadSlot(pendingData, slot, this::putDecoded);
+    }
+
+    /// Put the decoded fluid into the slot, without counting it as a change.
+    protected void putDecoded(@Nullable FluidStack fluid, int slot) {
+        internalFluids[slot] = fluid != null && fluid.amount > 0 ? fluid : null;
+    }
+
+    /// @return `true` if [#pendingData] is still the content of the tank.
+    protected boolean isPendingDataIntact() {
+        return pendingData != null && version == pendingVersion;
+    }
+
+    /// Check the decoded slots against [#pendingData], which only holds if every in-place change of the stacks is followed by [#markChanged()].
+    ///
+    /// It's as expensive as decoding the slots again, so only checked by [#saveData()] in the debug mode.
+    private boolean isDecodedSlotsUnchanged() {
+        NBTTagCompound data = pendingData;
+        if (data == null) return true;
+        boolean[] unchanged = {true};
+        UnconfinedUtils.Persist.load(data, getSlotCount(), (fluid, slot) -> {
+            if (isPending(slot)) return;
+            FluidStack current = internalFluids[slot];
+            if (current == null ? fluid != null : fluid == null || !current.isFluidStackIdentical(fluid)) {
+                unchanged[0] = false;
             }
-        }
+        });
+        return unchanged[0];
     }
 
     @Override
     public NBTTagCompound saveData() {
-        return Utils.make(
-            new NBTTagCompound(), tag -> {
-                for (int i = 0; i < getSlotCount(); i++) {
-                    FluidStack fluidStack = get(i);
-                    if (fluidStack != null) {
-                        tag.setTag(String.valueOf(i), fluidStack.writeToNBT(new NBTTagCompound()));
-                    }
+        if (pendingData != null) {
+            if (isPendingDataIntact()) {
+                if (UnconfinedAPI.isDebugMode()) {
+                    Assertions.check(isDecodedSlotsUnchanged(), "the decoded slots are changed in place without markChanged()");
                 }
+                // copied, as the caller may modify or keep the tag, while it's still read by the pending slots.
+                return (NBTTagCompound) pendingData.copy();
             }
-        );
+            getInternalFluids();
+            pendingData = null;
+            pendingSlots = null;
+        }
+        return UnconfinedUtils.Persist.save(getSlotCount(), this::get);
     }
 
     @Override
@@ -212,6 +298,7 @@ public class UnconfinedFluidTank implements IUnconfinedFluidTank {
                 if (slot != null && slot.isFluidEqual(output)) {
                     if (capacity - slot.amount >= output.amount) {
                         slot.amount += output.amount;
+                        markChanged();
                     } else {
                         // not enough space
                         failures.add(output);
@@ -223,7 +310,7 @@ public class UnconfinedFluidTank implements IUnconfinedFluidTank {
             for (int i = 0; i < getSlotCount(); i++) {
                 if (get(i) == null) {
                     if (capacity >= output.amount) {
-                        set(i, output);
+                        set(i, FluidTagInterner.intern(output));
                     } else {
                         // not enough space
                         failures.add(output);
@@ -22,12 +22,12 @@ public class UnconfinedFluidTankIntegrated implements IUnconfinedFluidTank.Wrapp
 
     @Override
     public @Nullable FluidStack getFluid() {
-        return delegate.getFirstNonEmpty();
+        return FluidTagInterner.copyIfTagged(delegate.getFirstNonEmpty());
     }
 
     @Override
     public int getFluidAmount() {
-        FluidStack fluid = getFluid();
+        FluidStack fluid = delegate.getFirstNonEmpty();
         return fluid != null ? fluid.amount : 0;
     }
 
@@ -20,6 +20,7 @@ public class UnconfinedFluidTankNoOverflow implements IUnconfinedFluidTank.Wrapp
                 if (execute) {
                     resource.amount -= amountToFill;
                     slot.amount += amountToFill;
+                    markChanged();
                 }
                 return amountToFill;
             }
@@ -29,7 +30,7 @@ public class UnconfinedFluidTankNoOverflow implements IUnconfinedFluidTank.Wrapp
                 int amountToFill = Math.min(getCapacity(), resource.amount);
                 if (execute) {
                     resource.amount -= amountToFill;
-                    set(i, UnconfinedUtils.copy(resource, amountToFill));
+                    set(i, FluidTagInterner.intern(UnconfinedUtils.copy(resource, amountToFill)));
                 }
                 return amountToFill;
             }
@@ -1,6 +1,7 @@
 package unconfined.util.fluidtank;
 
 import gregtech.api.metatileentity.implementations.MTEBasicMachine;
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraftforge.fluids.FluidStack;
 import org.jetbrains.annotations.ApiStatus;
 import org.jspecify.annotations.Nullable;
@@ -11,10 +12,13 @@ import org.jspecify.annotations.Nullable;
 public class UnconfinedFluidTankOverridden extends UnconfinedFluidTank {
 
     protected final @Nullable UnconfinedFluidSlotView[] overridden;
+    /// The fluids of the overridden slots when loaded lazily, see [#isPendingDataIntact()].
+    protected final @Nullable FluidStack[] loadedOverridden;
 
     public UnconfinedFluidTankOverridden(int slotCount, int capacity) {
         super(slotCount, capacity);
         this.overridden = new UnconfinedFluidSlotView[slotCount];
+        this.loadedOverridden = new FluidStack[slotCount];
     }
 
     /// Set the slot overridden, or cancel the overridden by passing a `null`.
@@ -35,11 +39,52 @@ public class UnconfinedFluidTankOverridden extends UnconfinedFluidTank {
         UnconfinedFluidSlotView view = overridden[slot];
         if (view != null) {
             view.accept(stack);
+            markChanged();
         } else {
             super.set(slot, stack);
         }
     }
 
+    /// The overridden slots are decoded immediately, as their owners may read them directly.
+    @Override
+    public void loadDataLazily(NBTTagCompound tag) {
+        super.loadDataLazily(tag);
+        for (int slot = 0; slot < overridden.length; slot++) {
+            UnconfinedFluidSlotView view = overridden[slot];
+            if (view != null) {
+                decodePending(slot);
+                FluidStack fluid = view.get();
+                loadedOverridden[slot] = fluid != null ? fluid.copy() : null;
+            }
+        }
+    }
+
+    @Override
+    protected void putDecoded(@Nullable FluidStack fluid, int slot) {
+        UnconfinedFluidSlotView view = overridden[slot];
+        if (view != null) {
+            view.accept(fluid);
+        } else {
+            super.putDecoded(fluid, slot);
+        }
+    }
+
+    /// The overridden slots can be changed by their owners without [#markChanged()], so they're compared with the loaded ones.
+    @Override
+    protected boolean isPendingDataIntact() {
+        if (!super.isPendingDataIntact()) return false;
+        for (int slot = 0; slot < overridden.length; slot++) {
+            UnconfinedFluidSlotView view = overridden[slot];
+            if (view == null) continue;
+            FluidStack current = view.get();
+            FluidStack loaded = loadedOverridden[slot];
+            if (current == null ? loaded != null : loaded == null || !current.isFluidStackIdentical(loaded)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @ApiStatus.Experimental
     public static void setupInputOverriddenFromBasicMachine(UnconfinedFluidTankOverridden tank, MTEBasicMachine self) {
         tank.setOverridden(0, UnconfinedFluidSlotView.of(self::getFillableStack, self::setFillableStack));